@@ -0,0 +1,188 @@
+package lox;
+
+import java.util.List;
+
+class AstPrinter implements Expr.Visitor<String>, Stmt.Visitor<String> {
+    private int indent = 0;
+
+    String print(List<Stmt> statements) {
+        StringBuilder builder = new StringBuilder();
+        for (Stmt statement : statements) {
+            builder.append(print(statement)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    String print(Stmt stmt) {
+        return "  ".repeat(indent) + stmt.accept(this);
+    }
+
+    String print(Expr expr) {
+        return expr.accept(this);
+    }
+
+    @Override
+    public String visitBlockStmt(Stmt.Block stmt) {
+        return "(block" + body(stmt.statements) + ")";
+    }
+
+    @Override
+    public String visitClassStmt(Stmt.Class stmt) {
+        StringBuilder builder = new StringBuilder("(class ").append(stmt.name.lexeme);
+        if (stmt.superclass != null) {
+            builder.append(" < ").append(print(stmt.superclass));
+        }
+        return builder.append(body(stmt.methods)).append(")").toString();
+    }
+
+    @Override
+    public String visitExpressionStmt(Stmt.Expression stmt) {
+        return "(; " + print(stmt.expression) + ")";
+    }
+
+    @Override
+    public String visitFunctionStmt(Stmt.Function stmt) {
+        StringBuilder builder = new StringBuilder("(fun ").append(stmt.name.lexeme).append(" (");
+        for (int i = 0; i < stmt.params.size(); i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(stmt.params.get(i).lexeme);
+        }
+        return builder.append(")").append(body(stmt.body)).append(")").toString();
+    }
+
+    @Override
+    public String visitIfStmt(Stmt.If stmt) {
+        StringBuilder builder = new StringBuilder("(if ").append(print(stmt.condition));
+        builder.append(body(List.of(stmt.thenBranch)));
+        if (stmt.elseBranch != null) {
+            builder.append(body(List.of(stmt.elseBranch)));
+        }
+        return builder.append(")").toString();
+    }
+
+    @Override
+    public String visitPrintStmt(Stmt.Print stmt) {
+        return "(print " + print(stmt.expression) + ")";
+    }
+
+    @Override
+    public String visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value == null) {
+            return "(return)";
+        }
+        return "(return " + print(stmt.value) + ")";
+    }
+
+    @Override
+    public String visitVarStmt(Stmt.Var stmt) {
+        if (stmt.initializer == null) {
+            return "(var " + stmt.name.lexeme + ")";
+        }
+        return "(var " + stmt.name.lexeme + " " + print(stmt.initializer) + ")";
+    }
+
+    @Override
+    public String visitWhileStmt(Stmt.While stmt) {
+        return "(while " + print(stmt.condition) + body(List.of(stmt.body)) + ")";
+    }
+
+    @Override
+    public String visitAssignExpr(Expr.Assign expr) {
+        return "(= " + expr.name.lexeme + " " + print(expr.value) + ")";
+    }
+
+    @Override
+    public String visitBinaryExpr(Expr.Binary expr) {
+        return "(" + expr.operator.lexeme + " " + print(expr.left) + " " + print(expr.right) + ")";
+    }
+
+    @Override
+    public String visitCallExpr(Expr.Call expr) {
+        StringBuilder builder = new StringBuilder("(call ").append(print(expr.callee));
+        for (Expr argument : expr.arguments) {
+            builder.append(' ').append(print(argument));
+        }
+        return builder.append(")").toString();
+    }
+
+    @Override
+    public String visitGetExpr(Expr.Get expr) {
+        return "(. " + print(expr.object) + " " + expr.name.lexeme + ")";
+    }
+
+    @Override
+    public String visitGroupingExpr(Expr.Grouping expr) {
+        return "(group " + print(expr.expression) + ")";
+    }
+
+    @Override
+    public String visitInlineExpr(Expr.Inline expr) {
+        return "(inline " + expr.function.name.lexeme + " " + print(expr.body) + ")";
+    }
+
+    @Override
+    public String visitIntrinsicExpr(Expr.Intrinsic expr) {
+        StringBuilder builder = new StringBuilder("(intrinsic ").append(expr.function.name);
+        for (Expr argument : expr.call.arguments) {
+            builder.append(' ').append(print(argument));
+        }
+        return builder.append(")").toString();
+    }
+
+    @Override
+    public String visitLiteralExpr(Expr.Literal expr) {
+        if (expr.value == null) {
+            return "nil";
+        } else if (expr.value instanceof String string) {
+            return "\"" + string + "\"";
+        }
+        return expr.value.toString();
+    }
+
+    @Override
+    public String visitLogicalExpr(Expr.Logical expr) {
+        return "(" + expr.operator.lexeme + " " + print(expr.left) + " " + print(expr.right) + ")";
+    }
+
+    @Override
+    public String visitSetExpr(Expr.Set expr) {
+        return "(= (. " + print(expr.object) + " " + expr.name.lexeme + ") " + print(expr.value) + ")";
+    }
+
+    @Override
+    public String visitSuperExpr(Expr.Super expr) {
+        return "(super " + expr.method.lexeme + ")";
+    }
+
+    @Override
+    public String visitTailCallExpr(Expr.TailCall expr) {
+        return "(tail " + print(expr.call) + ")";
+    }
+
+    @Override
+    public String visitThisExpr(Expr.This expr) {
+        return "this";
+    }
+
+    @Override
+    public String visitUnaryExpr(Expr.Unary expr) {
+        return "(" + expr.operator.lexeme + " " + print(expr.right) + ")";
+    }
+
+    @Override
+    public String visitVariableExpr(Expr.Variable expr) {
+        return expr.name.lexeme;
+    }
+
+    private String body(List<? extends Stmt> statements) {
+        StringBuilder builder = new StringBuilder();
+        indent++;
+        for (Stmt statement : statements) {
+            builder.append('\n').append(print(statement));
+        }
+        indent--;
+        return builder.toString();
+    }
+}
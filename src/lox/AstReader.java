@@ -0,0 +1,186 @@
+package lox;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class AstReader {
+    static class FormatError extends RuntimeException {
+        FormatError(String message) {
+            super(message);
+        }
+    }
+
+    private static final TokenType[] tokenTypes = TokenType.values();
+
+    private final ByteBuffer in;
+    private final List<String> strings = new ArrayList<>();
+
+    AstReader(ByteBuffer in) {
+        this.in = in;
+    }
+
+    List<Stmt> read() {
+        if (in.getInt() != AstWriter.MAGIC) {
+            throw new FormatError("Bad magic number.");
+        }
+        if (in.getInt() != AstWriter.FORMAT_VERSION) {
+            throw new FormatError("Unsupported format version.");
+        }
+
+        List<Stmt> statements = readStmts();
+        if (in.hasRemaining()) {
+            throw new FormatError("Trailing bytes after program.");
+        }
+        return statements;
+    }
+
+    private List<Stmt> readStmts() {
+        int count = readCount();
+        List<Stmt> statements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            statements.add(readStmt());
+        }
+        return statements;
+    }
+
+    private Stmt readStmt() {
+        byte tag = in.get();
+        return switch (tag) {
+            case AstWriter.TAG_NULL -> null;
+            case AstWriter.TAG_BLOCK -> new Stmt.Block(readStmts());
+            case AstWriter.TAG_CLASS -> {
+                Token name = readToken();
+                Expr.Variable superclass = (Expr.Variable) readExpr();
+                int count = readCount();
+                List<Stmt.Function> methods = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    methods.add((Stmt.Function) readStmt());
+                }
+                yield new Stmt.Class(name, superclass, methods);
+            }
+            case AstWriter.TAG_EXPRESSION -> new Stmt.Expression(readExpr());
+            case AstWriter.TAG_FUNCTION -> {
+                Token name = readToken();
+                int count = readCount();
+                List<Token> params = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    params.add(readToken());
+                }
+                yield new Stmt.Function(name, params, readStmts());
+            }
+            case AstWriter.TAG_IF -> new Stmt.If(readExpr(), readStmt(), readStmt());
+            case AstWriter.TAG_PRINT -> new Stmt.Print(readExpr());
+            case AstWriter.TAG_RETURN -> new Stmt.Return(readToken(), readExpr());
+            case AstWriter.TAG_VAR -> new Stmt.Var(readToken(), readExpr());
+            case AstWriter.TAG_WHILE -> new Stmt.While(readToken(), readExpr(), readStmt());
+            default -> throw new FormatError(String.format("Unknown statement tag %d.", tag));
+        };
+    }
+
+    private Expr readExpr() {
+        byte tag = in.get();
+        return switch (tag) {
+            case AstWriter.TAG_NULL -> null;
+            case AstWriter.TAG_ASSIGN -> readDistance(new Expr.Assign(readToken(), readExpr()));
+            case AstWriter.TAG_BINARY -> new Expr.Binary(readExpr(), readToken(), readExpr());
+            case AstWriter.TAG_CALL -> {
+                Expr callee = readExpr();
+                Token paren = readToken();
+                int count = readCount();
+                List<Expr> arguments = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    arguments.add(readExpr());
+                }
+                yield new Expr.Call(callee, paren, arguments);
+            }
+            case AstWriter.TAG_GET -> new Expr.Get(readExpr(), readToken());
+            case AstWriter.TAG_GROUPING -> new Expr.Grouping(readExpr());
+            case AstWriter.TAG_LITERAL -> new Expr.Literal(readValue());
+            case AstWriter.TAG_LOGICAL -> new Expr.Logical(readExpr(), readToken(), readExpr());
+            case AstWriter.TAG_SET -> new Expr.Set(readExpr(), readToken(), readExpr());
+            case AstWriter.TAG_SUPER -> readDistance(new Expr.Super(readToken(), readToken()));
+            case AstWriter.TAG_THIS -> readDistance(new Expr.This(readToken()));
+            case AstWriter.TAG_UNARY -> new Expr.Unary(readToken(), readExpr());
+            case AstWriter.TAG_VARIABLE -> readDistance(new Expr.Variable(readToken()));
+            default -> throw new FormatError(String.format("Unknown expression tag %d.", tag));
+        };
+    }
+
+    private Expr readDistance(Expr expr) {
+        expr.distance = readVarInt() - 1;
+        return expr;
+    }
+
+    private Token readToken() {
+        int type = in.get() & 0xff;
+        if (type >= tokenTypes.length) {
+            throw new FormatError(String.format("Unknown token type %d.", type));
+        }
+        String lexeme = readString();
+        Object literal = readValue();
+        int line = readVarInt();
+        return new Token(tokenTypes[type], lexeme, literal, line);
+    }
+
+    private Object readValue() {
+        byte kind = in.get();
+        return switch (kind) {
+            case AstWriter.VALUE_NIL -> null;
+            case AstWriter.VALUE_FALSE -> false;
+            case AstWriter.VALUE_TRUE -> true;
+            case AstWriter.VALUE_NUMBER -> Double.longBitsToDouble(in.getLong());
+            case AstWriter.VALUE_STRING -> readString();
+            default -> throw new FormatError(String.format("Unknown value kind %d.", kind));
+        };
+    }
+
+    private String readString() {
+        int index = readVarInt();
+        if (index != 0) {
+            if (index > strings.size()) {
+                throw new FormatError("String reference out of range.");
+            }
+            return strings.get(index - 1);
+        }
+
+        int length = readVarInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new FormatError("String length out of range.");
+        }
+        String string;
+        if (in.hasArray()) {
+            string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+        }
+        strings.add(string);
+        return string;
+    }
+
+    // Every element takes at least one byte, so a count larger than what is left can only come from a corrupt entry.
+    // Lists still grow as elements are read rather than being sized from a count nothing has vouched for.
+    private int readCount() {
+        int count = readVarInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new FormatError("Count out of range.");
+        }
+        return count;
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new FormatError("Malformed variable-length integer.");
+    }
+}
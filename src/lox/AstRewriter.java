@@ -0,0 +1,267 @@
+package lox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+abstract class AstRewriter implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+    List<Stmt> rewrite(List<Stmt> statements) {
+        return rewriteStmts(statements);
+    }
+
+    Stmt rewrite(Stmt stmt) {
+        return stmt == null ? null : stmt.accept(this);
+    }
+
+    Expr rewrite(Expr expr) {
+        return expr == null ? null : expr.accept(this);
+    }
+
+    // A statement that rewrites to nothing is dropped from lists and becomes an empty block elsewhere.
+    Stmt rewriteBranch(Stmt stmt) {
+        Stmt result = rewrite(stmt);
+        if (result == null && stmt != null) {
+            return new Stmt.Block(new ArrayList<>());
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends Stmt> List<T> rewriteStmts(List<T> statements) {
+        List<T> result = null;
+        for (int i = 0; i < statements.size(); i++) {
+            T statement = statements.get(i);
+            T rewritten = (T) rewrite(statement);
+            if (rewritten != statement && result == null) {
+                result = new ArrayList<>(statements.subList(0, i));
+            }
+            if (result != null && rewritten != null) {
+                result.add(rewritten);
+            }
+        }
+        return result == null ? statements : result;
+    }
+
+    List<Expr> rewriteExprs(List<Expr> exprs) {
+        List<Expr> result = null;
+        for (int i = 0; i < exprs.size(); i++) {
+            Expr expr = exprs.get(i);
+            Expr rewritten = rewrite(expr);
+            if (rewritten != expr && result == null) {
+                result = new ArrayList<>(exprs.subList(0, i));
+            }
+            if (result != null) {
+                result.add(rewritten);
+            }
+        }
+        return result == null ? exprs : result;
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = rewriteStmts(stmt.statements);
+        if (statements == stmt.statements) {
+            return stmt;
+        }
+        return new Stmt.Block(statements);
+    }
+
+    @Override
+    public Stmt visitClassStmt(Stmt.Class stmt) {
+        Expr.Variable superclass = (Expr.Variable) rewrite(stmt.superclass);
+        List<Stmt.Function> methods = rewriteStmts(stmt.methods);
+        if (superclass == stmt.superclass && methods == stmt.methods) {
+            return stmt;
+        }
+        return new Stmt.Class(stmt.name, superclass, methods);
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        Expr expression = rewrite(stmt.expression);
+        if (expression == stmt.expression) {
+            return stmt;
+        }
+        return new Stmt.Expression(expression);
+    }
+
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        List<Stmt> body = rewriteStmts(stmt.body);
+        if (body == stmt.body) {
+            return stmt;
+        }
+        return new Stmt.Function(stmt.name, stmt.params, body);
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Expr condition = rewrite(stmt.condition);
+        Stmt thenBranch = rewriteBranch(stmt.thenBranch);
+        Stmt elseBranch = rewriteBranch(stmt.elseBranch);
+        if (condition == stmt.condition && thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) {
+            return stmt;
+        }
+        return new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        Expr expression = rewrite(stmt.expression);
+        if (expression == stmt.expression) {
+            return stmt;
+        }
+        return new Stmt.Print(expression);
+    }
+
+    @Override
+    public Stmt visitReturnStmt(Stmt.Return stmt) {
+        Expr value = rewrite(stmt.value);
+        if (value == stmt.value) {
+            return stmt;
+        }
+        return new Stmt.Return(stmt.keyword, value);
+    }
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        Expr initializer = rewrite(stmt.initializer);
+        if (initializer == stmt.initializer) {
+            return stmt;
+        }
+        return new Stmt.Var(stmt.name, initializer);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = rewrite(stmt.condition);
+        Stmt body = rewriteBranch(stmt.body);
+        if (condition == stmt.condition && body == stmt.body) {
+            return stmt;
+        }
+        return new Stmt.While(stmt.keyword, condition, body);
+    }
+
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        Expr value = rewrite(expr.value);
+        if (value == expr.value) {
+            return expr;
+        }
+        return new Expr.Assign(expr.name, value);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = rewrite(expr.left);
+        Expr right = rewrite(expr.right);
+        if (left == expr.left && right == expr.right) {
+            return expr;
+        }
+        return new Expr.Binary(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        Expr callee = rewrite(expr.callee);
+        List<Expr> arguments = rewriteExprs(expr.arguments);
+        if (callee == expr.callee && arguments == expr.arguments) {
+            return expr;
+        }
+        return new Expr.Call(callee, expr.paren, arguments);
+    }
+
+    @Override
+    public Expr visitGetExpr(Expr.Get expr) {
+        Expr object = rewrite(expr.object);
+        if (object == expr.object) {
+            return expr;
+        }
+        return new Expr.Get(object, expr.name);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        Expr expression = rewrite(expr.expression);
+        if (expression == expr.expression) {
+            return expr;
+        }
+        return new Expr.Grouping(expression);
+    }
+
+    @Override
+    public Expr visitInlineExpr(Expr.Inline expr) {
+        Expr.Call call = (Expr.Call) rewrite(expr.call);
+        Expr body = rewrite(expr.body);
+        if (call == expr.call && body == expr.body) {
+            return expr;
+        }
+        return new Expr.Inline(call, expr.function, body);
+    }
+
+    @Override
+    public Expr visitIntrinsicExpr(Expr.Intrinsic expr) {
+        Expr.Call call = (Expr.Call) rewrite(expr.call);
+        if (call == expr.call) {
+            return expr;
+        }
+        return new Expr.Intrinsic(call, expr.function);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        Expr left = rewrite(expr.left);
+        Expr right = rewrite(expr.right);
+        if (left == expr.left && right == expr.right) {
+            return expr;
+        }
+        return new Expr.Logical(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitSetExpr(Expr.Set expr) {
+        Expr object = rewrite(expr.object);
+        Expr value = rewrite(expr.value);
+        if (object == expr.object && value == expr.value) {
+            return expr;
+        }
+        return new Expr.Set(object, expr.name, value);
+    }
+
+    @Override
+    public Expr visitSuperExpr(Expr.Super expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitTailCallExpr(Expr.TailCall expr) {
+        Expr.Call call = (Expr.Call) rewrite(expr.call);
+        if (call == expr.call) {
+            return expr;
+        }
+        return new Expr.TailCall(call);
+    }
+
+    @Override
+    public Expr visitThisExpr(Expr.This expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = rewrite(expr.right);
+        if (right == expr.right) {
+            return expr;
+        }
+        return new Expr.Unary(expr.operator, right);
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+}
@@ -0,0 +1,330 @@
+package lox;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class AstWriter implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+    static final int MAGIC = 0x4a4c4f58;
+    static final int FORMAT_VERSION = 2;
+
+    static final byte TAG_NULL = 0;
+
+    static final byte TAG_ASSIGN = 1;
+    static final byte TAG_BINARY = 2;
+    static final byte TAG_CALL = 3;
+    static final byte TAG_GET = 4;
+    static final byte TAG_GROUPING = 5;
+    static final byte TAG_LITERAL = 6;
+    static final byte TAG_LOGICAL = 7;
+    static final byte TAG_SET = 8;
+    static final byte TAG_SUPER = 9;
+    static final byte TAG_THIS = 10;
+    static final byte TAG_UNARY = 11;
+    static final byte TAG_VARIABLE = 12;
+
+    static final byte TAG_BLOCK = 32;
+    static final byte TAG_CLASS = 33;
+    static final byte TAG_EXPRESSION = 34;
+    static final byte TAG_FUNCTION = 35;
+    static final byte TAG_IF = 36;
+    static final byte TAG_PRINT = 37;
+    static final byte TAG_RETURN = 38;
+    static final byte TAG_VAR = 39;
+    static final byte TAG_WHILE = 40;
+
+    static final byte VALUE_NIL = 0;
+    static final byte VALUE_FALSE = 1;
+    static final byte VALUE_TRUE = 2;
+    static final byte VALUE_NUMBER = 3;
+    static final byte VALUE_STRING = 4;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    byte[] write(List<Stmt> statements) {
+        writeInt(MAGIC);
+        writeInt(FORMAT_VERSION);
+        writeVarInt(statements.size());
+        for (Stmt statement : statements) {
+            write(statement);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        out.write(TAG_BLOCK);
+        writeStmts(stmt.statements);
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        out.write(TAG_CLASS);
+        writeToken(stmt.name);
+        write(stmt.superclass);
+        writeStmts(stmt.methods);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        out.write(TAG_EXPRESSION);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        out.write(TAG_FUNCTION);
+        writeToken(stmt.name);
+        writeVarInt(stmt.params.size());
+        for (Token param : stmt.params) {
+            writeToken(param);
+        }
+        writeStmts(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        out.write(TAG_IF);
+        write(stmt.condition);
+        write(stmt.thenBranch);
+        write(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        out.write(TAG_PRINT);
+        write(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        out.write(TAG_RETURN);
+        writeToken(stmt.keyword);
+        write(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        out.write(TAG_VAR);
+        writeToken(stmt.name);
+        write(stmt.initializer);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        out.write(TAG_WHILE);
+        writeToken(stmt.keyword);
+        write(stmt.condition);
+        write(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        out.write(TAG_ASSIGN);
+        writeToken(expr.name);
+        write(expr.value);
+        writeDistance(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        out.write(TAG_BINARY);
+        write(expr.left);
+        writeToken(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        out.write(TAG_CALL);
+        write(expr.callee);
+        writeToken(expr.paren);
+        writeVarInt(expr.arguments.size());
+        for (Expr argument : expr.arguments) {
+            write(argument);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitGetExpr(Expr.Get expr) {
+        out.write(TAG_GET);
+        write(expr.object);
+        writeToken(expr.name);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        out.write(TAG_GROUPING);
+        write(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitInlineExpr(Expr.Inline expr) {
+        // Programs are written before the optimization passes that introduce these nodes run.
+        throw new IllegalStateException("Inline nodes are not serialized.");
+    }
+
+    @Override
+    public Void visitIntrinsicExpr(Expr.Intrinsic expr) {
+        throw new IllegalStateException("Intrinsic nodes are not serialized.");
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        out.write(TAG_LITERAL);
+        writeValue(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        out.write(TAG_LOGICAL);
+        write(expr.left);
+        writeToken(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitSetExpr(Expr.Set expr) {
+        out.write(TAG_SET);
+        write(expr.object);
+        writeToken(expr.name);
+        write(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitSuperExpr(Expr.Super expr) {
+        out.write(TAG_SUPER);
+        writeToken(expr.keyword);
+        writeToken(expr.method);
+        writeDistance(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitTailCallExpr(Expr.TailCall expr) {
+        throw new IllegalStateException("TailCall nodes are not serialized.");
+    }
+
+    @Override
+    public Void visitThisExpr(Expr.This expr) {
+        out.write(TAG_THIS);
+        writeToken(expr.keyword);
+        writeDistance(expr);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        out.write(TAG_UNARY);
+        writeToken(expr.operator);
+        write(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        out.write(TAG_VARIABLE);
+        writeToken(expr.name);
+        writeDistance(expr);
+        return null;
+    }
+
+    private void write(Stmt stmt) {
+        if (stmt == null) {
+            out.write(TAG_NULL);
+        } else {
+            stmt.accept(this);
+        }
+    }
+
+    private void write(Expr expr) {
+        if (expr == null) {
+            out.write(TAG_NULL);
+        } else {
+            expr.accept(this);
+        }
+    }
+
+    private void writeStmts(List<? extends Stmt> statements) {
+        writeVarInt(statements.size());
+        for (Stmt statement : statements) {
+            write(statement);
+        }
+    }
+
+    private void writeDistance(Expr expr) {
+        writeVarInt(expr.distance + 1);
+    }
+
+    private void writeToken(Token token) {
+        out.write(token.type.ordinal());
+        writeString(token.lexeme);
+        writeValue(token.literal);
+        writeVarInt(token.line);
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            out.write(VALUE_NIL);
+        } else if (value instanceof Boolean bool) {
+            out.write(bool ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Double number) {
+            out.write(VALUE_NUMBER);
+            long bits = Double.doubleToRawLongBits(number);
+            writeInt((int) (bits >>> 32));
+            writeInt((int) bits);
+        } else {
+            out.write(VALUE_STRING);
+            writeString((String) value);
+        }
+    }
+
+    private void writeString(String string) {
+        Integer index = strings.get(string);
+        if (index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+
+        strings.put(string, strings.size());
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(0);
+        writeVarInt(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeInt(int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,93 @@
+package lox;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+
+// One run's LoxBudget being spent. Interpreters count steps and allocations themselves and settle up here at their
+// checkpoints, every GlobalLock.YIELD_INTERVAL steps at most, so the shared counters stay off the hot path even when
+// parallel workers charge them concurrently. An unlimited meter skips all of it.
+final class BudgetMeter {
+    static final BudgetMeter UNLIMITED = new BudgetMeter(LoxBudget.UNLIMITED);
+
+    private final boolean unlimited;
+    private final AtomicLong fuel;
+    private final AtomicLong allocations;
+    private final Long deadline;
+
+    BudgetMeter(LoxBudget budget) {
+        this.unlimited = budget.isUnlimited();
+        this.fuel = new AtomicLong(budget.fuel);
+        this.allocations = new AtomicLong(budget.allocations);
+        this.deadline = budget.timeout == null ? null : System.nanoTime() + budget.timeout.toNanos();
+    }
+
+    // How many steps an interpreter may take before its next checkpoint.
+    int allowance() {
+        return (int) Math.max(1, Math.min(GlobalLock.YIELD_INTERVAL, fuel.get()));
+    }
+
+    // Charges what an interpreter used since its last checkpoint, failing at `where` once the budget is exceeded.
+    int charge(long steps, long allocated, Token where) {
+        if (unlimited) {
+            return GlobalLock.YIELD_INTERVAL;
+        }
+        if (fuel.addAndGet(-steps) < 0) {
+            throw new RuntimeError(where, "Fuel exhausted.");
+        }
+        if (allocations.addAndGet(-allocated) < 0) {
+            throw new RuntimeError(where, "Allocation limit exceeded.");
+        }
+        if (deadline != null && System.nanoTime() - deadline > 0) {
+            throw new RuntimeError(where, "Time limit exceeded.");
+        }
+        return allowance();
+    }
+
+    // Records what a finished task or parallel chunk used since its last checkpoint; whoever checks next fails if
+    // that went over.
+    void spend(long steps, long allocated) {
+        if (!unlimited) {
+            fuel.addAndGet(-steps);
+            allocations.addAndGet(-allocated);
+        }
+    }
+
+    // Waits on a GlobalLock condition, but not past the deadline. Like Condition.await, it may return early.
+    void await(Condition condition) throws InterruptedException {
+        if (deadline == null) {
+            condition.await();
+            return;
+        }
+
+        long left = deadline - System.nanoTime();
+        if (left <= 0) {
+            throw new NativeError("Time limit exceeded.");
+        }
+        condition.await(left, TimeUnit.NANOSECONDS);
+    }
+
+    boolean hasDeadline() {
+        return deadline != null;
+    }
+
+    // Waits for `future`, but not past the deadline.
+    <T> T await(Future<T> future) throws InterruptedException, ExecutionException {
+        if (deadline == null) {
+            return future.get();
+        }
+
+        long left = deadline - System.nanoTime();
+        if (left <= 0) {
+            throw new NativeError("Time limit exceeded.");
+        }
+        try {
+            return future.get(left, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException error) {
+            throw new NativeError("Time limit exceeded.");
+        }
+    }
+}
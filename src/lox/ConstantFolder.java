@@ -0,0 +1,156 @@
+package lox;
+
+import java.util.List;
+
+class ConstantFolder extends AstRewriter implements PassManager.Pass {
+    @Override
+    public String name() {
+        return "constant-folding";
+    }
+
+    @Override
+    public List<Stmt> run(List<Stmt> statements) {
+        return rewrite(statements);
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        Expr expression = rewrite(stmt.expression);
+        if (expression instanceof Expr.Literal) {
+            return null;
+        } else if (expression == stmt.expression) {
+            return stmt;
+        }
+        return new Stmt.Expression(expression);
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Expr condition = rewrite(stmt.condition);
+        if (condition instanceof Expr.Literal literal) {
+            if (Interpreter.isTruthy(literal.value)) {
+                return rewrite(stmt.thenBranch);
+            } else {
+                return rewrite(stmt.elseBranch);
+            }
+        }
+
+        Stmt thenBranch = rewriteBranch(stmt.thenBranch);
+        Stmt elseBranch = rewrite(stmt.elseBranch);
+        if (condition == stmt.condition && thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) {
+            return stmt;
+        }
+        return new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = rewrite(stmt.condition);
+        if (condition instanceof Expr.Literal literal && !Interpreter.isTruthy(literal.value)) {
+            return null;
+        }
+
+        Stmt body = rewriteBranch(stmt.body);
+        if (condition == stmt.condition && body == stmt.body) {
+            return stmt;
+        }
+        return new Stmt.While(stmt.keyword, condition, body);
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = rewrite(expr.left);
+        Expr right = rewrite(expr.right);
+
+        if (left instanceof Expr.Literal leftLiteral && right instanceof Expr.Literal rightLiteral) {
+            Object a = leftLiteral.value;
+            Object b = rightLiteral.value;
+
+            if (a instanceof Double x && b instanceof Double y) {
+                switch (expr.operator.type) {
+                    case TokenType.Minus -> {
+                        return new Expr.Literal(x - y);
+                    }
+                    case TokenType.Slash -> {
+                        return new Expr.Literal(x / y);
+                    }
+                    case TokenType.Star -> {
+                        return new Expr.Literal(x * y);
+                    }
+                    case TokenType.Plus -> {
+                        return new Expr.Literal(x + y);
+                    }
+                    case TokenType.Greater -> {
+                        return new Expr.Literal(x > y);
+                    }
+                    case TokenType.GreaterEqual -> {
+                        return new Expr.Literal(x >= y);
+                    }
+                    case TokenType.Less -> {
+                        return new Expr.Literal(x < y);
+                    }
+                    case TokenType.LessEqual -> {
+                        return new Expr.Literal(x <= y);
+                    }
+                    default -> {}
+                }
+            } else if (a instanceof String x && b instanceof String y && expr.operator.type == TokenType.Plus) {
+                return new Expr.Literal(x + y);
+            }
+
+            if (expr.operator.type == TokenType.EqualEqual) {
+                return new Expr.Literal(Interpreter.isEqual(a, b));
+            } else if (expr.operator.type == TokenType.BangEqual) {
+                return new Expr.Literal(!Interpreter.isEqual(a, b));
+            }
+        }
+
+        if (left == expr.left && right == expr.right) {
+            return expr;
+        }
+        return new Expr.Binary(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        return rewrite(expr.expression);
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Expr.Logical expr) {
+        Expr left = rewrite(expr.left);
+        Expr right = rewrite(expr.right);
+
+        if (left instanceof Expr.Literal literal) {
+            boolean truthy = Interpreter.isTruthy(literal.value);
+            if (expr.operator.type == TokenType.Or) {
+                return truthy ? left : right;
+            } else {
+                return truthy ? right : left;
+            }
+        }
+
+        if (left == expr.left && right == expr.right) {
+            return expr;
+        }
+        return new Expr.Logical(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = rewrite(expr.right);
+
+        if (right instanceof Expr.Literal literal) {
+            if (expr.operator.type == TokenType.Bang) {
+                return new Expr.Literal(!Interpreter.isTruthy(literal.value));
+            } else if (expr.operator.type == TokenType.Minus && literal.value instanceof Double number) {
+                return new Expr.Literal(-number);
+            }
+        }
+
+        if (right == expr.right) {
+            return expr;
+        }
+        return new Expr.Unary(expr.operator, right);
+    }
+}
@@ -0,0 +1,47 @@
+package lox;
+
+import java.io.PrintStream;
+
+// Where one compilation or context reports its errors, and whether any happened.
+class ErrorReporter {
+    private final PrintStream err;
+    boolean hadError = false;
+    boolean hadRuntimeError = false;
+
+    ErrorReporter(PrintStream err) {
+        this.err = err;
+    }
+
+    void error(int line, String message) {
+        report(line, "", message);
+    }
+
+    void error(Token token, String message) {
+        if (token.type == TokenType.EOF) {
+            report(token.line, " at end", message);
+        } else {
+            report(token.line, String.format(" at `%s`", token.lexeme), message);
+        }
+    }
+
+    private void report(int line, String where, String message) {
+        err.println(String.format("[line %d] Error%s: %s", line, where, message));
+        hadError = true;
+    }
+
+    void runtimeError(RuntimeError error) {
+        err.println(String.format("[Runtime Error | line %d]: %s", error.token.line, error.getMessage()));
+        err.print(error.trace());
+        hadRuntimeError = true;
+    }
+
+    // Problems that don't fail the run, such as a file writer that couldn't be flushed at exit.
+    void warning(String message) {
+        err.println(message);
+    }
+
+    void reset() {
+        hadError = false;
+        hadRuntimeError = false;
+    }
+}
@@ -9,15 +9,21 @@ abstract class Expr {
         RetType visitCallExpr(Call expr);
         RetType visitGetExpr(Get expr);
         RetType visitGroupingExpr(Grouping expr);
+        RetType visitInlineExpr(Inline expr);
+        RetType visitIntrinsicExpr(Intrinsic expr);
         RetType visitLiteralExpr(Literal expr);
         RetType visitLogicalExpr(Logical expr);
         RetType visitSetExpr(Set expr);
         RetType visitSuperExpr(Super expr);
+        RetType visitTailCallExpr(TailCall expr);
         RetType visitThisExpr(This expr);
         RetType visitUnaryExpr(Unary expr);
         RetType visitVariableExpr(Variable expr);
     }
 
+    LoxType staticType = LoxType.Unknown;
+    int distance = -1;
+
     static class Assign extends Expr {
         final Token name;
         final Expr value;
@@ -95,6 +101,38 @@ abstract class Expr {
         }
     }
 
+    static class Inline extends Expr {
+        final Expr.Call call;
+        final Stmt.Function function;
+        final Expr body;
+
+        Inline(Expr.Call call, Stmt.Function function, Expr body) {
+            this.call = call;
+            this.function = function;
+            this.body = body;
+        }
+
+        @Override
+        <RetType> RetType accept(Visitor<RetType> visitor) {
+            return visitor.visitInlineExpr(this);
+        }
+    }
+
+    static class Intrinsic extends Expr {
+        final Expr.Call call;
+        final MathFunction function;
+
+        Intrinsic(Expr.Call call, MathFunction function) {
+            this.call = call;
+            this.function = function;
+        }
+
+        @Override
+        <RetType> RetType accept(Visitor<RetType> visitor) {
+            return visitor.visitIntrinsicExpr(this);
+        }
+    }
+
     static class Literal extends Expr {
         final Object value;
 
@@ -157,6 +195,19 @@ abstract class Expr {
         }
     }
 
+    static class TailCall extends Expr {
+        final Expr.Call call;
+
+        TailCall(Expr.Call call) {
+            this.call = call;
+        }
+
+        @Override
+        <RetType> RetType accept(Visitor<RetType> visitor) {
+            return visitor.visitTailCallExpr(this);
+        }
+    }
+
     static class This extends Expr {
         final Token keyword;
 
@@ -0,0 +1,163 @@
+package lox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The context's global interpreter lock. Environments, Lox values and the context's streams are unsynchronized, so
+// a thread runs Lox code only while it holds this lock. Waiting on a channel or task releases it (they wait on
+// conditions of this lock), reading input releases it for the read, and running code hands it over every
+// YIELD_INTERVAL loop iterations or calls when another task is queued. Acquiring and releasing the lock orders all
+// memory accesses, so tasks always see each other's writes to globals and shared objects.
+//
+// The lock also notices deadlocks. It counts the threads of a run (the main script and its unfinished tasks) and
+// the waits on its conditions that nothing has signalled yet. Once every thread is in such a wait, only another of
+// them could ever signal it, so all of those waits fail instead. Waiting for input doesn't count: input can come.
+final class GlobalLock {
+    static final int YIELD_INTERVAL = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    // Only touched with the lock held.
+    private int threads = 0;
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    private static final class Waiter {
+        final Condition condition;
+        boolean deadlocked = false;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    interface Blocking<T> {
+        T run();
+    }
+
+    interface Waiting {
+        void await() throws InterruptedException;
+    }
+
+    void acquire() {
+        lock.lock();
+    }
+
+    void release() {
+        lock.unlock();
+    }
+
+    Condition newCondition() {
+        return lock.newCondition();
+    }
+
+    // The lock is fair, so releasing it lets a queued task in before this thread gets it back.
+    void yieldIfContended() {
+        if (lock.hasQueuedThreads()) {
+            int holds = lock.getHoldCount();
+            for (int i = 0; i < holds; i++) {
+                lock.unlock();
+            }
+            for (int i = 0; i < holds; i++) {
+                lock.lock();
+            }
+        }
+    }
+
+    // Runs `action` without the lock; it must not touch Lox state.
+    <T> T blocking(Blocking<T> action) {
+        int holds = lock.getHoldCount();
+        for (int i = 0; i < holds; i++) {
+            lock.unlock();
+        }
+        try {
+            return action.run();
+        } finally {
+            for (int i = 0; i < holds; i++) {
+                lock.lock();
+            }
+        }
+    }
+
+    // A thread of the run starts or finishes. A task counts from when it is spawned, not from when its thread first
+    // gets the lock, so a join right after spawn() isn't mistaken for a deadlock.
+    void addThread() {
+        threads++;
+    }
+
+    void removeThread() {
+        threads--;
+        detectDeadlock();
+    }
+
+    // Waits on `condition` through `waiting`, which may return early like Condition.await, turning an interrupt into
+    // a Lox error. Fails if the run is deadlocked, before waiting or on waking up.
+    void await(Condition condition, Waiting waiting) {
+        if (!awaitOrDeadlock(condition, waiting)) {
+            throw new NativeError("Deadlock: every task is waiting.");
+        }
+    }
+
+    // Like await, but a deadlock only wakes it up. For the end of a run, which waits for tasks that fail on their
+    // own when deadlocked.
+    void awaitThroughDeadlock(Condition condition, Waiting waiting) {
+        awaitOrDeadlock(condition, waiting);
+    }
+
+    // Signalled waits no longer count as waiting, even before their threads get the lock back. Condition.signal wakes
+    // the longest waiting thread, which is also the first of its waiters here.
+    void signal(Condition condition) {
+        for (int i = 0; i < waiters.size(); i++) {
+            if (waiters.get(i).condition == condition) {
+                waiters.remove(i);
+                break;
+            }
+        }
+        condition.signal();
+    }
+
+    void signalAll(Condition condition) {
+        waiters.removeIf(waiter -> waiter.condition == condition);
+        condition.signalAll();
+    }
+
+    private boolean awaitOrDeadlock(Condition condition, Waiting waiting) {
+        Waiter waiter = new Waiter(condition);
+        waiters.add(waiter);
+        detectDeadlock();
+        try {
+            if (!waiter.deadlocked) {
+                waiting.await();
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new NativeError("Interrupted while waiting.");
+        } finally {
+            waiters.remove(waiter);
+        }
+        return !waiter.deadlocked;
+    }
+
+    private void detectDeadlock() {
+        if (threads == 0 || waiters.size() < threads) {
+            return;
+        }
+        for (Waiter waiter : waiters) {
+            waiter.deadlocked = true;
+            waiter.condition.signalAll();
+        }
+        waiters.clear();
+    }
+
+    // Wraps `action` to run under the lock, for callbacks like LoxInput's flush that run where it was released.
+    Runnable guard(Runnable action) {
+        return () -> {
+            lock.lock();
+            try {
+                action.run();
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package lox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class Inliner extends AstRewriter implements PassManager.Pass {
+    private static final int MAX_BODY_NODES = 16;
+
+    private final Map<String, Stmt.Function> candidates = new HashMap<>();
+
+    @Override
+    public String name() {
+        return "inlining";
+    }
+
+    @Override
+    public List<Stmt> run(List<Stmt> statements) {
+        Set<String> declared = new HashSet<>();
+        Set<String> excluded = new HashSet<>();
+        for (Stmt statement : statements) {
+            String name = declaredName(statement);
+            if (name != null && !declared.add(name)) {
+                excluded.add(name);
+            }
+            if (statement instanceof Stmt.Function function && isInlinable(function)) {
+                candidates.put(function.name.lexeme, function);
+            }
+        }
+
+        AssignmentScanner scanner = new AssignmentScanner();
+        scanner.rewrite(statements);
+        excluded.addAll(scanner.assigned);
+        candidates.keySet().removeAll(excluded);
+
+        if (candidates.isEmpty()) {
+            return statements;
+        }
+        return rewrite(statements);
+    }
+
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        Expr.Call call = (Expr.Call) super.visitCallExpr(expr);
+
+        if (!(call.callee instanceof Expr.Variable callee) || callee.distance >= 0) {
+            return call;
+        }
+        Stmt.Function function = candidates.get(callee.name.lexeme);
+        if (function == null || function.params.size() != call.arguments.size()) {
+            return call;
+        }
+
+        Map<String, Expr> arguments = new HashMap<>();
+        for (int i = 0; i < function.params.size(); i++) {
+            Expr argument = call.arguments.get(i);
+            if (!(argument instanceof Expr.Literal || argument instanceof Expr.Variable || argument instanceof Expr.This)) {
+                return call;
+            }
+            arguments.put(function.params.get(i).lexeme, argument);
+        }
+
+        // A variable argument must still be read, in order, so an undefined one fails exactly as the call would.
+        List<String> reads = new ArrayList<>();
+        collectReads(((Stmt.Return) function.body.get(0)).value, reads);
+        int last = -1;
+        for (int i = 0; i < function.params.size(); i++) {
+            if (call.arguments.get(i) instanceof Expr.Literal) {
+                continue;
+            }
+            int first = reads.indexOf(function.params.get(i).lexeme);
+            if (first < 0 || first < last) {
+                return call;
+            }
+            last = first;
+        }
+
+        Expr body = substitute(((Stmt.Return) function.body.get(0)).value, arguments);
+        return new Expr.Inline(call, function, body);
+    }
+
+    @Override
+    public Expr visitInlineExpr(Expr.Inline expr) {
+        return expr;
+    }
+
+    private static String declaredName(Stmt statement) {
+        if (statement instanceof Stmt.Function function) {
+            return function.name.lexeme;
+        } else if (statement instanceof Stmt.Var var) {
+            return var.name.lexeme;
+        } else if (statement instanceof Stmt.Class loxClass) {
+            return loxClass.name.lexeme;
+        }
+        return null;
+    }
+
+    // Only `return <expr>;` bodies built from parameters, literals and operators qualify, which rules out recursion.
+    private static boolean isInlinable(Stmt.Function function) {
+        if (function.body.size() != 1 || !(function.body.get(0) instanceof Stmt.Return ret) || ret.value == null) {
+            return false;
+        }
+
+        Set<String> params = new HashSet<>();
+        for (Token param : function.params) {
+            params.add(param.lexeme);
+        }
+        return countNodes(ret.value, params) <= MAX_BODY_NODES;
+    }
+
+    private static int countNodes(Expr expr, Set<String> params) {
+        if (expr instanceof Expr.Literal) {
+            return 1;
+        } else if (expr instanceof Expr.Variable variable) {
+            return params.contains(variable.name.lexeme) ? 1 : MAX_BODY_NODES + 1;
+        } else if (expr instanceof Expr.Grouping grouping) {
+            return countNodes(grouping.expression, params);
+        } else if (expr instanceof Expr.Unary unary) {
+            return 1 + countNodes(unary.right, params);
+        } else if (expr instanceof Expr.Binary binary) {
+            return 1 + countNodes(binary.left, params) + countNodes(binary.right, params);
+        }
+        return MAX_BODY_NODES + 1;
+    }
+
+    private static void collectReads(Expr expr, List<String> reads) {
+        if (expr instanceof Expr.Variable variable) {
+            reads.add(variable.name.lexeme);
+        } else if (expr instanceof Expr.Grouping grouping) {
+            collectReads(grouping.expression, reads);
+        } else if (expr instanceof Expr.Unary unary) {
+            collectReads(unary.right, reads);
+        } else if (expr instanceof Expr.Binary binary) {
+            collectReads(binary.left, reads);
+            collectReads(binary.right, reads);
+        }
+    }
+
+    private static Expr substitute(Expr expr, Map<String, Expr> arguments) {
+        if (expr instanceof Expr.Variable variable) {
+            return arguments.get(variable.name.lexeme);
+        } else if (expr instanceof Expr.Grouping grouping) {
+            return new Expr.Grouping(substitute(grouping.expression, arguments));
+        } else if (expr instanceof Expr.Unary unary) {
+            return new Expr.Unary(unary.operator, substitute(unary.right, arguments));
+        } else if (expr instanceof Expr.Binary binary) {
+            return new Expr.Binary(substitute(binary.left, arguments), binary.operator, substitute(binary.right, arguments));
+        }
+        return expr;
+    }
+
+    private class AssignmentScanner extends AstRewriter {
+        final Set<String> assigned = new HashSet<>();
+
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            if (expr.distance < 0) {
+                assigned.add(expr.name.lexeme);
+            }
+            return super.visitAssignExpr(expr);
+        }
+    }
+}
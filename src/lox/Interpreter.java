@@ -2,78 +2,243 @@ package lox;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
 
+// Evaluates a resolved AST without ever writing to it: everything a run mutates (environments, globals, streams)
+// hangs off the Interpreter, which belongs to a single context. Tasks started by spawn() run on forked
+// Interpreters that share the context's globals and streams, one at a time under the context's GlobalLock.
 class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
-    final Environment globals = new Environment();
-    private Environment environment = globals;
-    private final Map<Expr, Integer> locals = new HashMap<>();
-    private java.util.Scanner input_scanner = new java.util.Scanner(System.in);
-
-    Interpreter() {
-        globals.define("clock", new LoxCallable() {
-            @Override
-            public int arity() {
-                return 0;
-            }
-
-            @Override
-            public Object call(Interpreter interpreter, List<Object> arguments) {
-                return (double) System.currentTimeMillis() / 1000.0;
-            }
+    final Environment globals;
+    private Environment environment;
+    final LoxOutput output;
+    final LoxInput input;
+    final ErrorReporter reporter;
+    final List<LoxFileWriter> writers;
+    final GlobalLock lock;
+    // Tasks spawned and not finished yet.
+    private final Set<LoxTask> tasks;
+    // Set on parallel_map and parallel_reduce workers, which may only call what it allows.
+    private final ParallelSafety parallelSafety;
+    private BudgetMeter meter = BudgetMeter.UNLIMITED;
+    // Steps (loop iterations and calls) left before the next checkpoint, out of the `armed` it started with.
+    private int countdown = GlobalLock.YIELD_INTERVAL;
+    private int armed = GlobalLock.YIELD_INTERVAL;
+    // Environments and instances created since the last checkpoint.
+    int allocations = 0;
+    // Stack size of the threads tasks run on; 0 runs them on virtual threads.
+    long stackSize = 0;
+
+    Interpreter(LoxOutput output, LoxInput input, ErrorReporter reporter, GlobalLock lock) {
+        this.globals = new Environment();
+        this.environment = globals;
+        this.output = output;
+        this.input = input;
+        this.reporter = reporter;
+        this.writers = new ArrayList<>();
+        this.lock = lock;
+        this.tasks = new LinkedHashSet<>();
+        this.parallelSafety = null;
+
+        defineParallelSafeNative("clock", 0, (interpreter, arguments) -> (double) System.currentTimeMillis() / 1000.0);
+        defineNative("readline", 0, (interpreter, arguments) ->
+            interpreter.lock.blocking(() -> interpreter.input.readLine(interpreter.meter)));
+        defineNative("read_all", 0, (interpreter, arguments) ->
+            interpreter.lock.blocking(() -> interpreter.input.readAll(interpreter.meter)));
+        defineNative("read_lines", 0, (interpreter, arguments) -> new NativeFunction("read_lines iterator", 0,
+            (caller, none) -> caller.lock.blocking(() -> caller.input.readLine(caller.meter))));
+        defineNative("line_number", 0, (interpreter, arguments) -> (double) interpreter.input.lineNumber());
+        defineParallelSafeNative("to_string", 1, (interpreter, arguments) -> interpreter.stringify(arguments.get(0)));
+
+        defineNative("Array", 0, (interpreter, arguments) -> new LoxArray());
+        defineNative("Map", 0, (interpreter, arguments) -> new LoxMap());
+
+        for (MathFunction function : MathFunction.values()) {
+            globals.define(function.name, function.toNative());
+        }
 
-            @Override
-            public String toString() {
-                return "<native fn `clock`>";
+        defineNative("StringBuilder", 0, (interpreter, arguments) -> new LoxStringBuilder());
+        defineParallelSafeNative("substring", 3, (interpreter, arguments) -> LoxStrings.substring(
+            NativeObject.checkText(arguments.get(0), "String"),
+            NativeObject.checkIndex(arguments.get(1), "Start"), NativeObject.checkIndex(arguments.get(2), "End")));
+        defineParallelSafeNative("slice", 3, (interpreter, arguments) -> LoxStrings.slice(
+            NativeObject.checkText(arguments.get(0), "String"),
+            NativeObject.checkInteger(arguments.get(1), "Start"), NativeObject.checkInteger(arguments.get(2), "End")));
+        defineParallelSafeNative("index_of", 2, (interpreter, arguments) -> LoxStrings.indexOf(
+            NativeObject.checkText(arguments.get(0), "String"), NativeObject.checkText(arguments.get(1), "Needle")));
+        defineParallelSafeNative("split", 2, (interpreter, arguments) -> LoxStrings.split(
+            NativeObject.checkText(arguments.get(0), "String"), NativeObject.checkText(arguments.get(1), "Separator")));
+        defineParallelSafeNative("char_at", 2, (interpreter, arguments) -> LoxStrings.charAt(
+            NativeObject.checkText(arguments.get(0), "String"), NativeObject.checkIndex(arguments.get(1), "Index")));
+
+        defineNative("open_file", 1, (interpreter, arguments) ->
+            new LoxMappedFile(NativeObject.checkString(arguments.get(0), "Path")));
+        defineNative("open_writer", 1, (interpreter, arguments) ->
+            interpreter.openWriter(NativeObject.checkString(arguments.get(0), "Path"), false));
+        defineNative("open_appender", 1, (interpreter, arguments) ->
+            interpreter.openWriter(NativeObject.checkString(arguments.get(0), "Path"), true));
+
+        defineNative("spawn", 1, (interpreter, arguments) -> interpreter.spawn(arguments.get(0)));
+        defineNative("Channel", 1, (interpreter, arguments) -> {
+            long capacity = NativeObject.checkIndex(arguments.get(0), "Capacity");
+            if (capacity < 1 || capacity > Integer.MAX_VALUE) {
+                throw new NativeError("Capacity must be at least 1.");
             }
+            return new LoxChannel(interpreter.lock, (int) capacity);
         });
+        defineNative("parallel_map", 2, (interpreter, arguments) ->
+            LoxParallel.map(interpreter, checkArray(arguments.get(0)), arguments.get(1)));
+        defineNative("parallel_reduce", 3, (interpreter, arguments) ->
+            LoxParallel.reduce(interpreter, checkArray(arguments.get(0)), arguments.get(1), arguments.get(2)));
+    }
 
-        globals.define("readline", new LoxCallable() {
-            @Override
-            public int arity() {
-                return 0;
-            }
+    // A task's or parallel worker's Interpreter: same globals, streams and lock, its own environment chain.
+    private Interpreter(Interpreter parent, ParallelSafety parallelSafety) {
+        this.globals = parent.globals;
+        this.environment = globals;
+        this.output = parent.output;
+        this.input = parent.input;
+        this.reporter = parent.reporter;
+        this.writers = parent.writers;
+        this.lock = parent.lock;
+        this.tasks = parent.tasks;
+        this.parallelSafety = parallelSafety;
+        this.meter = parent.meter;
+        this.countdown = this.armed = meter.allowance();
+        this.stackSize = parent.stackSize;
+    }
 
-            @Override
-            public Object call(Interpreter interpreter, List<Object> arguments) {
-                return interpreter.input_scanner.nextLine();
-            }
+    Interpreter parallelWorker(ParallelSafety safety) {
+        return new Interpreter(this, safety);
+    }
 
-            @Override
-            public String toString() {
-                return "<native fn `readline`>";
-            }
-        });
+    private void defineNative(String name, int arity, NativeFunction.Body body) {
+        globals.define(name, new NativeFunction(name, arity, body));
+    }
 
-        globals.define("to_string", new LoxCallable() {
-            @Override
-            public int arity() {
-                return 1;
-            }
+    // Natives that only read Lox state, which parallel workers may call too.
+    private void defineParallelSafeNative(String name, int arity, NativeFunction.Body body) {
+        globals.define(name, new NativeFunction(name, arity, body, true));
+    }
 
-            @Override
-            public Object call(Interpreter interpreter, List<Object> arguments) {
-                return interpreter.stringify(arguments.get(0));
-            }
+    private static LoxArray checkArray(Object value) {
+        if (value instanceof LoxArray array) {
+            return array;
+        }
+        throw new NativeError("Expected an array.");
+    }
 
-            @Override
-            public String toString() {
-                return "<native fn `to_string`>";
+    private LoxFileWriter openWriter(String path, boolean append) {
+        LoxFileWriter writer = new LoxFileWriter(path, append);
+        writers.add(writer);
+        return writer;
+    }
+
+    // Writers a script forgot to close still get their data out when the program ends.
+    void flush() {
+        output.flush();
+        for (LoxFileWriter writer : writers) {
+            try {
+                writer.flush();
+            } catch (NativeError error) {
+                reporter.warning(error.getMessage());
             }
-        });
+        }
     }
 
-    void interpret(List<Stmt> statements) {
+    private LoxTask spawn(Object callee) {
+        if (!(callee instanceof LoxFunction function) || function.arity() != 0) {
+            throw new NativeError("Can only spawn functions that take no arguments.");
+        }
+
+        LoxTask task = new LoxTask(lock);
+        tasks.add(task);
+        lock.addThread();
+        Interpreter worker = new Interpreter(this, null);
+        Thread.Builder builder = stackSize > 0 ? Thread.ofPlatform().daemon().stackSize(stackSize) : Thread.ofVirtual();
+        builder.start(() -> worker.run(function, task));
+        return task;
+    }
+
+    private void run(LoxFunction function, LoxTask task) {
+        lock.acquire();
+        Object result = null;
         try {
-            for (Stmt statement : statements) {
-                execute(statement);
-            }
+            result = function.call(this, List.of());
         } catch (RuntimeError error) {
-            Lox.runtimeError(error);
+            output.flush();
+            reporter.runtimeError(error);
+        } finally {
+            settle();
+            tasks.remove(task);
+            task.finish(result);
+            lock.removeThread();
+            lock.release();
+        }
+    }
+
+    // A run ends when its main script and every task it spawned have finished.
+    void interpret(List<Stmt> statements, LoxBudget budget) {
+        lock.acquire();
+        lock.addThread();
+        try {
+            meter = budget.isUnlimited() ? BudgetMeter.UNLIMITED : new BudgetMeter(budget);
+            countdown = armed = meter.allowance();
+            allocations = 0;
+            try {
+                for (Stmt statement : statements) {
+                    execute(statement);
+                }
+            } catch (RuntimeError error) {
+                flush();
+                reporter.runtimeError(error);
+            }
+            while (!tasks.isEmpty()) {
+                tasks.iterator().next().awaitFinished();
+            }
+        } finally {
+            lock.removeThread();
+            lock.release();
         }
     }
 
+    // Loop back-edges and calls count as steps. Every so often one becomes a checkpoint, where the run lets other
+    // tasks in and charges its budget.
+    void step(Token where) {
+        if (--countdown <= 0) {
+            checkpoint(where);
+        }
+    }
+
+    private void checkpoint(Token where) {
+        // A parallel worker may be running on the thread that called parallel_map, which holds the lock for the
+        // other workers too; handing it to a task would let the task change what they are reading.
+        if (parallelSafety == null) {
+            lock.yieldIfContended();
+        } else if (parallelSafety.failed()) {
+            throw new ParallelSafety.Cancelled();
+        }
+        long steps = armed - countdown;
+        long allocated = allocations;
+        allocations = 0;
+        countdown = armed = meter.charge(steps, allocated, where);
+    }
+
+    // Called when a task or parallel chunk is done with this Interpreter.
+    void settle() {
+        meter.spend(armed - countdown, allocations);
+        countdown = armed = meter.allowance();
+        allocations = 0;
+    }
+
+    // Waits on one of the GlobalLock's conditions, but not past the run's deadline, and fails if that deadlocks.
+    void await(Condition condition) {
+        lock.await(condition, () -> meter.await(condition));
+    }
+
     private Object evaluate(Expr expr) {
         return expr.accept(this);
     }
@@ -82,10 +247,6 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         stmt.accept(this);
     }
 
-    void resolve(Expr expr, int depth) {
-        locals.put(expr, depth);
-    }
-
     void executeBlock(List<Stmt> statements, Environment environment) {
         Environment previous = this.environment;
 
@@ -101,6 +262,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     @Override
     public Void visitBlockStmt(Stmt.Block stmt) {
+        allocations++;
         executeBlock(stmt.statements, new Environment(environment));
         return null;
     }
@@ -164,7 +326,13 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     @Override
     public Void visitPrintStmt(Stmt.Print stmt) {
         Object value = evaluate(stmt.expression);
-        System.out.println(stringify(value));
+        if (value instanceof Double number) {
+            output.printNumber(number);
+        } else if (value instanceof CharSequence text) {
+            output.println(text);
+        } else {
+            output.println(stringify(value));
+        }
         return null;
     }
 
@@ -191,6 +359,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     public Void visitWhileStmt(Stmt.While stmt) {
         while (isTruthy(evaluate(stmt.condition))) {
             execute(stmt.body);
+            step(stmt.keyword);
         }
         return null;
     }
@@ -199,9 +368,8 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     public Object visitAssignExpr(Expr.Assign expr) {
         Object value = evaluate(expr.value);
 
-        Integer distance = locals.get(expr);
-        if (distance != null) {
-            environment.assignAt(distance, expr.name, value);
+        if (expr.distance >= 0) {
+            environment.assignAt(expr.distance, expr.name, value);
         } else {
             globals.assign(expr.name, value);
         }
@@ -216,40 +384,54 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
         return switch (expr.operator.type) {
             case TokenType.Minus -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left - (double) right;
             }
             case TokenType.Slash -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left / (double) right;
             }
             case TokenType.Star -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left * (double) right;
             }
             case TokenType.Plus -> {
-                if (left instanceof Double && right instanceof Double) {
+                if (expr.staticType == LoxType.Number || left instanceof Double && right instanceof Double) {
                     yield (double) left + (double) right;
-                } else if (left instanceof String && right instanceof String) {
-                    yield (String) left + (String) right;
+                } else if (expr.staticType == LoxType.String || LoxRope.isString(left) && LoxRope.isString(right)) {
+                    yield LoxRope.concat(left, right, parallelSafety == null ? null : this);
                 } else {
                     throw new RuntimeError(expr.operator, "Operands must be two numbers or two strings.");
                 }
             }
             case TokenType.Greater -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left > (double) right;
             }
             case TokenType.GreaterEqual -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left >= (double) right;
             }
             case TokenType.Less -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left < (double) right;
             }
             case TokenType.LessEqual -> {
-                checkNumberOperand(expr.operator, left, right);
+                if (!provenNumbers(expr)) {
+                    checkNumberOperand(expr.operator, left, right);
+                }
                 yield (double) left <= (double) right;
             }
             case TokenType.BangEqual -> !isEqual(left, right);
@@ -260,13 +442,68 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     @Override
     public Object visitCallExpr(Expr.Call expr) {
-        Object callee = evaluate(expr.callee);
+        if (expr.callee instanceof Expr.Get get) {
+            Object object = evaluate(get.object);
+            if (object instanceof NativeObject nativeObject) {
+                return callMethod(nativeObject, nativeObject.checkMethod(get.name), expr);
+            }
+            return call(property(object, get.name), expr);
+        }
+        return call(evaluate(expr.callee), expr);
+    }
+
+    private Object call(Object callee, Expr.Call expr) {
+        List<Object> arguments = evaluateArguments(expr);
+        LoxCallable function = checkCall(callee, arguments, expr);
+
+        try {
+            return function.call(this, arguments);
+        } catch (RuntimeError error) {
+            error.returnTo(expr.paren.line);
+            throw error;
+        } catch (NativeError error) {
+            throw new RuntimeError(expr.paren, error.getMessage());
+        } catch (StackOverflowError error) {
+            // The innermost call with enough stack left to build the error reports it.
+            throw new RuntimeError(expr.paren, "Stack overflow.");
+        }
+    }
+
+    // `object.name(...)` on a native object, without binding the method into a NativeFunction first.
+    private Object callMethod(NativeObject object, NativeMethod<?> method, Expr.Call expr) {
+        List<Object> arguments = evaluateArguments(expr);
+        if (arguments.size() != method.arity) {
+            throw new RuntimeError(expr.paren, String.format("Expected %d arguments but got %d.", method.arity, arguments.size()));
+        }
+        if (parallelSafety != null) {
+            String problem = parallelSafety.check(method);
+            if (problem != null) {
+                throw new RuntimeError(expr.paren, problem);
+            }
+        }
+
+        try {
+            return method.call(object, this, arguments);
+        } catch (RuntimeError error) {
+            error.returnTo(expr.paren.line);
+            throw error;
+        } catch (NativeError error) {
+            throw new RuntimeError(expr.paren, error.getMessage());
+        } catch (StackOverflowError error) {
+            // The innermost call with enough stack left to build the error reports it.
+            throw new RuntimeError(expr.paren, "Stack overflow.");
+        }
+    }
 
+    private List<Object> evaluateArguments(Expr.Call expr) {
         List<Object> arguments = new ArrayList<>();
         for (Expr argument : expr.arguments) {
             arguments.add(evaluate(argument));
         }
+        return arguments;
+    }
 
+    private LoxCallable checkCall(Object callee, List<Object> arguments, Expr.Call expr) {
         if (!(callee instanceof LoxCallable)) {
             throw new RuntimeError(expr.paren, "Can only call functions and classes.");
         }
@@ -277,17 +514,28 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
             throw new RuntimeError(expr.paren, String.format("Expected %d arguments but got %d.", function.arity(), arguments.size()));
         }
 
-        return function.call(this, arguments);
+        if (parallelSafety != null) {
+            String problem = parallelSafety.check(function);
+            if (problem != null) {
+                throw new RuntimeError(expr.paren, problem);
+            }
+        }
+        return function;
     }
 
     @Override
     public Object visitGetExpr(Expr.Get expr) {
-        Object object = evaluate(expr.object);
+        return property(evaluate(expr.object), expr.name);
+    }
+
+    private Object property(Object object, Token name) {
         if (object instanceof LoxInstance loxInstance) {
-            return loxInstance.get(expr.name);
+            return loxInstance.get(name);
+        } else if (object instanceof NativeObject nativeObject) {
+            return nativeObject.get(name);
         }
 
-        throw new RuntimeError(expr.name, "Only instances have properties.");
+        throw new RuntimeError(name, "Only instances have properties.");
     }
 
     @Override
@@ -295,6 +543,51 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return evaluate(expr.expression);
     }
 
+    @Override
+    public Object visitInlineExpr(Expr.Inline expr) {
+        Object callee = evaluate(expr.call.callee);
+        // Later passes may rebuild the declaration the Inliner saw, but they keep its name token.
+        if (callee instanceof LoxFunction function && function.declaration.name == expr.function.name) {
+            try {
+                return evaluate(expr.body);
+            } catch (RuntimeError error) {
+                // The frame and call-site line the call would have added, unless reading an argument failed,
+                // which happens before the call.
+                if (!isArgumentError(error, expr.call)) {
+                    error.leave(expr.function.name.lexeme);
+                    error.returnTo(expr.call.paren.line);
+                }
+                throw error;
+            }
+        }
+        return call(callee, expr.call);
+    }
+
+    // The Inliner substitutes the call's own argument nodes into the body.
+    private static boolean isArgumentError(RuntimeError error, Expr.Call call) {
+        for (Expr argument : call.arguments) {
+            if (argument instanceof Expr.Variable variable && variable.name == error.token) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object visitIntrinsicExpr(Expr.Intrinsic expr) {
+        Object callee = evaluate(expr.call.callee);
+        if (!(callee instanceof NativeFunction function) || function.intrinsic != expr.function) {
+            return call(callee, expr.call);
+        }
+
+        Object x = evaluate(expr.call.arguments.get(0));
+        Object y = expr.function.arity == 2 ? evaluate(expr.call.arguments.get(1)) : 0.0;
+        if (x instanceof Double a && y instanceof Double b) {
+            return expr.function.apply(a, b);
+        }
+        throw new RuntimeError(expr.call.paren, expr.function.errorMessage());
+    }
+
     @Override
     public Object visitLiteralExpr(Expr.Literal expr) {
         return expr.value;
@@ -332,7 +625,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     @Override
     public Object visitSuperExpr(Expr.Super expr) {
-        int distance = locals.get(expr);
+        int distance = expr.distance;
         LoxClass superclass = (LoxClass) environment.getAt(distance, "super");
         LoxInstance object = (LoxInstance) environment.getAt(distance - 1, "this");
 
@@ -345,6 +638,29 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return method.bind(object);
     }
 
+    // Only ever the value of a return statement, so the TailCall goes straight to the enclosing LoxFunction.call.
+    // Natives and classes don't grow the Lox stack and are just called.
+    @Override
+    public Object visitTailCallExpr(Expr.TailCall expr) {
+        Object callee;
+        if (expr.call.callee instanceof Expr.Get get) {
+            Object object = evaluate(get.object);
+            if (object instanceof NativeObject nativeObject) {
+                return callMethod(nativeObject, nativeObject.checkMethod(get.name), expr.call);
+            }
+            callee = property(object, get.name);
+        } else {
+            callee = evaluate(expr.call.callee);
+        }
+        if (!(callee instanceof LoxFunction function) || function.isInitializer) {
+            return call(callee, expr.call);
+        }
+
+        List<Object> arguments = evaluateArguments(expr.call);
+        checkCall(function, arguments, expr.call);
+        return new LoxFunction.TailCall(function, arguments);
+    }
+
     @Override
     public Object visitThisExpr(Expr.This expr) {
         return lookUpVariable(expr.keyword, expr);
@@ -357,7 +673,9 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return switch (expr.operator.type) {
             case TokenType.Bang -> !isTruthy(right);
             case TokenType.Minus -> {
-                checkNumberOperand(expr.operator, right);
+                if (expr.right.staticType != LoxType.Number) {
+                    checkNumberOperand(expr.operator, right);
+                }
                 yield - (double) right;
             }
             default -> null;
@@ -370,14 +688,17 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     }
 
     private Object lookUpVariable(Token name, Expr expr) {
-        Integer distance = locals.get(expr);
-        if (distance != null) {
-            return environment.getAt(distance, name.lexeme);
+        if (expr.distance >= 0) {
+            return environment.getAt(expr.distance, name.lexeme);
         } else {
             return globals.get(name);
         }
     }
 
+    private static boolean provenNumbers(Expr.Binary expr) {
+        return expr.left.staticType == LoxType.Number && expr.right.staticType == LoxType.Number;
+    }
+
     private void checkNumberOperand(Token operator, Object operand) {
         if (operand instanceof Double) {
             return;
@@ -392,7 +713,7 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         throw new RuntimeError(operator, "Operand must be numbers.");
     }
 
-    private boolean isTruthy(Object object) {
+    static boolean isTruthy(Object object) {
         if (object == null) {
             return false;
         } else if (object instanceof Boolean) {
@@ -402,25 +723,23 @@ class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         }
     }
 
-    private boolean isEqual(Object a, Object b) {
+    static boolean isEqual(Object a, Object b) {
         if (a == null && b == null) {
             return true;
         } else if (a == null) {
             return false;
+        } else if (a instanceof CharSequence x && b instanceof CharSequence y && !(a instanceof String && b instanceof String)) {
+            return CharSequence.compare(x, y) == 0;
         } else {
             return a.equals(b);
         }
     }
 
-    private String stringify(Object object) {
+    String stringify(Object object) {
         if (object == null) {
             return "nil";
-        } else if (object instanceof Double) {
-            String text = object.toString();
-            if (text.endsWith(".0")) {
-                text = text.substring(0, text.length() - 2);
-            }
-            return text;
+        } else if (object instanceof Double number) {
+            return NumberFormatter.format(number);
         } else {
             return object.toString();
         }
@@ -0,0 +1,57 @@
+package lox;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Marks calls to the math natives by global name. Whether the global still holds the native is only known at run
+// time, so the Interpreter guards each Intrinsic node and falls back to an ordinary call.
+class Intrinsics extends AstRewriter implements PassManager.Pass {
+    private static final Map<String, MathFunction> FUNCTIONS = new HashMap<>();
+
+    static {
+        for (MathFunction function : MathFunction.values()) {
+            FUNCTIONS.put(function.name, function);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "intrinsics";
+    }
+
+    @Override
+    public List<Stmt> run(List<Stmt> statements) {
+        return rewrite(statements);
+    }
+
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        Expr.Call call = (Expr.Call) super.visitCallExpr(expr);
+
+        if (!(call.callee instanceof Expr.Variable callee) || callee.distance >= 0) {
+            return call;
+        }
+        MathFunction function = FUNCTIONS.get(callee.name.lexeme);
+        if (function == null || function.arity != call.arguments.size()) {
+            return call;
+        }
+        return new Expr.Intrinsic(call, function);
+    }
+
+    // The call inside these nodes has to stay an Expr.Call; only its arguments are rewritten.
+    @Override
+    public Expr visitInlineExpr(Expr.Inline expr) {
+        Expr.Call call = (Expr.Call) super.visitCallExpr(expr.call);
+        Expr body = rewrite(expr.body);
+        if (call == expr.call && body == expr.body) {
+            return expr;
+        }
+        return new Expr.Inline(call, expr.function, body);
+    }
+
+    @Override
+    public Expr visitIntrinsicExpr(Expr.Intrinsic expr) {
+        return expr;
+    }
+}
@@ -3,92 +3,121 @@ package lox;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 
 public class Lox {
-    private static final Interpreter interpreter = new Interpreter();
-    static boolean hadError = false;
-    static boolean hadRuntimeError = false;
+    static final String VERSION = "1.0.0";
+    // Room for a few hundred thousand nested Lox calls. Only the pages actually used are committed.
+    private static final long DEFAULT_STACK_SIZE = 256L << 20;
 
     public static void main(String[] args) throws IOException {
-        if (args.length > 1) {
-            System.out.println("Usage: jlox [script]");
-            System.exit(64);
-        } else if (args.length == 1) {
-            runFile(args[0]);
+        int level = PassManager.DEFAULT_LEVEL;
+        boolean dump = false;
+        boolean time = false;
+        String flush = null;
+        String script = null;
+        NativeRegistry natives = new NativeRegistry();
+        LoxBudget budget = LoxBudget.UNLIMITED;
+        long stackSize = DEFAULT_STACK_SIZE;
+
+        for (String arg : args) {
+            LoxBudget limited = LoxBudget.withOption(budget, arg);
+            if (limited != null) {
+                budget = limited;
+            } else if (arg.matches("-O[0-9]") && arg.charAt(2) - '0' <= PassManager.MAX_LEVEL) {
+                level = arg.charAt(2) - '0';
+            } else if (arg.equals("--dump-passes")) {
+                dump = true;
+            } else if (arg.equals("--time-passes")) {
+                time = true;
+            } else if (arg.startsWith("--flush=") && LoxOutput.isValidPolicy(arg.substring(8))) {
+                flush = arg.substring(8);
+            } else if (arg.startsWith("--stack=") && parseSize(arg.substring(8)) >= 0) {
+                stackSize = parseSize(arg.substring(8));
+            } else if (arg.startsWith("--natives=")) {
+                registerNatives(natives, arg.substring(10));
+            } else if (script == null && !arg.startsWith("-")) {
+                script = arg;
+            } else {
+                usage();
+            }
+        }
+
+        PassManager passManager = new PassManager(level, dump, time, System.err);
+        LoxEngine engine = new LoxEngine(passManager, natives, ProgramCache.fromEnvironment());
+        LoxContext context = engine.newContext(LoxOutput.stdout(flush), System.err);
+        context.setBudget(budget);
+        context.setStackSize(stackSize);
+
+        if (script != null) {
+            runFile(context, script);
         } else {
-            runPrompt();
+            runPrompt(context);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: jlox [-O0|-O1|-O2] [--dump-passes] [--time-passes] [--flush=line|exit|BYTES] "
+            + "[--natives=CLASS,...] [--fuel=N] [--timeout=MS] [--max-allocations=N] [--stack=SIZE] [script]");
+        System.exit(64);
+    }
+
+    // Bytes, with an optional k, m or g suffix; -1 when malformed.
+    static long parseSize(String size) {
+        if (!size.matches("[0-9]{1,12}[kmgKMG]?")) {
+            return -1;
         }
+        int shift = switch (Character.toLowerCase(size.charAt(size.length() - 1))) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            default -> 0;
+        };
+        String digits = shift == 0 ? size : size.substring(0, size.length() - 1);
+        return Long.parseLong(digits) << shift;
     }
 
-    private static void runFile(String path) throws IOException {
-        byte[] bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
+    private static void registerNatives(NativeRegistry natives, String classNames) {
+        for (String className : classNames.split(",")) {
+            try {
+                natives.register(Class.forName(className));
+            } catch (ClassNotFoundException | IllegalArgumentException error) {
+                System.err.println(String.format("Could not register natives from `%s`: %s", className, error.getMessage()));
+                System.exit(64);
+            }
+        }
+    }
 
-        if (hadError) {
-            System.exit(65);
-        } else if (hadRuntimeError) {
-            System.exit(70);
+    private static void runFile(LoxContext context, String path) throws IOException {
+        int status = context.run(Files.readAllBytes(Paths.get(path)));
+        if (status != LoxContext.EXIT_OK) {
+            System.exit(status);
         }
     }
 
-    private static void runPrompt() throws IOException {
+    private static void runPrompt(LoxContext context) throws IOException {
         InputStreamReader input = new InputStreamReader(System.in);
         BufferedReader reader = new BufferedReader(input);
 
         while (true) {
             System.out.print("> ");
+            System.out.flush();
             String line = reader.readLine();
             if (line == null) {
                 break;
             }
-            run(line);
-            hadError = false;
+            context.eval(line);
         }
     }
 
-    private static void run(String source) {
-        Scanner scanner = new Scanner(source);
-        List<Token> tokens = scanner.scanTokens();
-        Parser parser = new Parser(tokens);
-        List<Stmt> statements = parser.parse();
-
-        if (hadError) {
-            return;
+    static void runPackaged(ByteBuffer program) {
+        LoxContext context = new LoxEngine().newContext(LoxOutput.stdout(null), System.err);
+        context.setStackSize(DEFAULT_STACK_SIZE);
+        int status = context.run(program);
+        if (status != LoxContext.EXIT_OK) {
+            System.exit(status);
         }
-
-        Resolver resolver = new Resolver(interpreter);
-        resolver.resolve(statements);
-
-        if (hadError) {
-            return;
-        }
-
-        interpreter.interpret(statements);
-    }
-
-    static void error(int line, String message) {
-        report(line, "", message);
-    }
-
-    private static void report(int line, String where, String message) {
-        System.err.println(String.format("[line %d] Error%s: %s", line, where, message));
-        hadError = true;
-    }
-
-    static void error(Token token, String message) {
-        if (token.type == TokenType.EOF) {
-            report(token.line, " at end", message);
-        } else {
-            report(token.line, String.format(" at `%s`", token.lexeme), message);
-        }
-    }
-
-    static void runtimeError(RuntimeError error) {
-        System.err.println(String.format("[Runtime Error | line %d]: %s", error.token.line, error.getMessage()));
-        hadRuntimeError = true;
     }
 }
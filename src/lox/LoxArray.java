@@ -0,0 +1,104 @@
+package lox;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Growable array. Elements live unboxed in `numbers` for as long as only numbers have been stored; the first
+// non-number moves everything into `values` for good.
+class LoxArray extends NativeObject {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final Map<String, NativeMethod<LoxArray>> METHODS = NativeMethod.table(
+        new NativeMethod<>("get", 1, (array, interpreter, arguments) -> array.get(array.checkBounds(arguments.get(0))),
+            true),
+        new NativeMethod<>("set", 2, (array, interpreter, arguments) -> {
+            array.set(array.checkBounds(arguments.get(0)), arguments.get(1));
+            return null;
+        }),
+        new NativeMethod<>("push", 1, (array, interpreter, arguments) -> {
+            array.push(arguments.get(0));
+            return null;
+        }),
+        new NativeMethod<>("pop", 0, (array, interpreter, arguments) -> array.pop()),
+        new NativeMethod<>("len", 0, (array, interpreter, arguments) -> (double) array.size, true));
+
+    private double[] numbers = new double[INITIAL_CAPACITY];
+    private Object[] values = null;
+    private int size = 0;
+
+    @Override
+    String typeName() {
+        return "array";
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    int size() {
+        return size;
+    }
+
+    Object get(int index) {
+        if (values == null) {
+            return numbers[index];
+        }
+        return values[index];
+    }
+
+    void set(int index, Object value) {
+        if (values == null) {
+            if (value instanceof Double number) {
+                numbers[index] = number;
+                return;
+            }
+            generalize();
+        }
+        values[index] = value;
+    }
+
+    void push(Object value) {
+        if (values == null && !(value instanceof Double)) {
+            generalize();
+        }
+
+        if (values == null) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = (Double) value;
+        } else {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private Object pop() {
+        if (size == 0) {
+            throw new NativeError("Cannot pop from an empty array.");
+        }
+        Object value = get(--size);
+        if (values != null) {
+            values[size] = null;
+        }
+        return value;
+    }
+
+    private void generalize() {
+        values = new Object[numbers.length];
+        for (int i = 0; i < size; i++) {
+            values[i] = numbers[i];
+        }
+        numbers = null;
+    }
+
+    private int checkBounds(Object value) {
+        long index = checkIndex(value, "Array index");
+        if (index >= size) {
+            throw new NativeError(String.format("Array index %d is out of bounds for length %d.", index, size));
+        }
+        return (int) index;
+    }
+}
@@ -0,0 +1,204 @@
+package lox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Runs many scripts, or one script over many input files, concurrently in one JVM. Every run gets its own
+// LoxContext on a virtual thread; compiled scripts are shared between runs through a ScriptCache. Results are
+// reported in the order the runs were given, and runs are only started up to a window ahead of the oldest one not
+// reported yet, so the output held in memory is bounded by the window, not by the size of the batch.
+public class LoxBatch {
+    private static final int DEFAULT_JOBS = 256;
+    // How many runs may be started or finished but not yet reported, per job.
+    private static final int WINDOW_PER_JOB = 2;
+
+    private record Run(String name, Path source, Path input) {}
+
+    private record Result(Run run, int status, double millis, byte[] out, byte[] err) {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int level = PassManager.DEFAULT_LEVEL;
+        int jobs = DEFAULT_JOBS;
+        Path outputDir = null;
+        Path script = null;
+        List<Path> files = new ArrayList<>();
+        LoxBudget budget = LoxBudget.UNLIMITED;
+        long stackSize = 0;
+
+        for (String arg : args) {
+            LoxBudget limited = LoxBudget.withOption(budget, arg);
+            if (limited != null) {
+                budget = limited;
+            } else if (arg.matches("-O[0-9]") && arg.charAt(2) - '0' <= PassManager.MAX_LEVEL) {
+                level = arg.charAt(2) - '0';
+            } else if (arg.matches("--jobs=[1-9][0-9]{0,5}")) {
+                jobs = Integer.parseInt(arg.substring(7));
+            } else if (arg.startsWith("--stack=") && Lox.parseSize(arg.substring(8)) >= 0) {
+                stackSize = Lox.parseSize(arg.substring(8));
+            } else if (arg.startsWith("--output=")) {
+                outputDir = Paths.get(arg.substring(9));
+            } else if (arg.startsWith("--script=")) {
+                script = Paths.get(arg.substring(9));
+            } else if (!arg.startsWith("-")) {
+                files.add(Paths.get(arg));
+            } else {
+                usage();
+            }
+        }
+        if (files.isEmpty()) {
+            usage();
+        }
+
+        List<Run> runs = new ArrayList<>();
+        Map<Path, Path> outputNames = new HashMap<>();
+        for (Path file : files) {
+            Path name = outputName(file);
+            Path other = outputNames.putIfAbsent(name, file);
+            if (outputDir != null && other != null) {
+                System.err.println(String.format("`%s` and `%s` would both write `%s`.", other, file,
+                    outputDir.resolve(name + ".out")));
+                System.exit(64);
+            }
+            runs.add(script == null ? new Run(name.toString(), file, null) : new Run(name.toString(), script, file));
+        }
+        Path output = outputDir;
+        LoxBudget limits = budget;
+        long stack = stackSize;
+        if (output != null) {
+            Files.createDirectories(output);
+        }
+
+        LoxEngine engine = new LoxEngine(new PassManager(level, false, false, System.err), new NativeRegistry(),
+            ProgramCache.fromEnvironment());
+        ScriptCache cache = new ScriptCache(engine);
+        Semaphore permits = new Semaphore(jobs);
+        long start = System.nanoTime();
+        int failed = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            int window = jobs * WINDOW_PER_JOB;
+            ArrayDeque<Future<Result>> pending = new ArrayDeque<>();
+            int reported = 0;
+            for (Run run : runs) {
+                if (pending.size() == window) {
+                    failed += collect(pending.poll(), runs.get(reported++), output == null);
+                }
+                pending.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return execute(engine, cache, run, output, limits, stack);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            while (!pending.isEmpty()) {
+                failed += collect(pending.poll(), runs.get(reported++), output == null);
+            }
+        }
+
+        System.err.println(String.format("%d runs, %d failed, %d scripts compiled in %.1f s",
+            runs.size(), failed, cache.compiled(), (System.nanoTime() - start) / 1e9));
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static void usage() {
+        System.out.println("Usage: jlox-batch [-O0|-O1|-O2] [--jobs=N] [--output=DIR] [--script=SCRIPT] [--fuel=N] "
+            + "[--timeout=MS] [--max-allocations=N] [--stack=SIZE] file...");
+        System.exit(64);
+    }
+
+    // Waits for a run, reports it and returns 1 if it failed.
+    private static int collect(Future<Result> future, Run run, boolean withOutput) throws InterruptedException {
+        Result result;
+        try {
+            result = future.get();
+        } catch (ExecutionException error) {
+            byte[] message = String.format("Run failed: %s%n", error.getCause()).getBytes(StandardCharsets.UTF_8);
+            result = new Result(run, LoxContext.EXIT_RUNTIME_ERROR, 0, new byte[0], message);
+        }
+        report(result, withOutput);
+        return result.status == LoxContext.EXIT_OK ? 0 : 1;
+    }
+
+    // A run's name, and its place under --output: the file's path made relative, so distinct files never share
+    // one. `..` would climb out of the output directory and becomes `_up`.
+    private static Path outputName(Path file) {
+        Path path = file.normalize();
+        if (path.getRoot() != null) {
+            path = path.getRoot().relativize(path);
+        }
+
+        Path name = null;
+        for (Path part : path) {
+            String segment = part.toString().equals("..") ? "_up" : part.toString();
+            name = name == null ? Paths.get(segment) : name.resolve(segment);
+        }
+        return name;
+    }
+
+    private static Result execute(LoxEngine engine, ScriptCache cache, Run run, Path outputDir, LoxBudget budget,
+            long stackSize) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status;
+
+        try {
+            ScriptCache.Entry entry = cache.get(Files.readAllBytes(run.source));
+            if (entry.script() == null) {
+                err.writeBytes(entry.errors().getBytes(StandardCharsets.UTF_8));
+                status = LoxContext.EXIT_COMPILE_ERROR;
+            } else {
+                try (InputStream in = run.input == null ? InputStream.nullInputStream() : Files.newInputStream(run.input)) {
+                    LoxContext context = engine.newContext(in, out, err);
+                    context.setBudget(budget);
+                    context.setStackSize(stackSize);
+                    status = context.run(entry.script());
+                }
+            }
+        } catch (IOException error) {
+            err.writeBytes(String.format("Could not read input: %s%n", error.getMessage()).getBytes(StandardCharsets.UTF_8));
+            status = 66;
+        }
+
+        double millis = (System.nanoTime() - start) / 1e6;
+        if (outputDir == null) {
+            return new Result(run, status, millis, out.toByteArray(), err.toByteArray());
+        }
+
+        Path outFile = outputDir.resolve(run.name + ".out");
+        Files.createDirectories(outFile.getParent());
+        Files.write(outFile, out.toByteArray());
+        if (err.size() > 0) {
+            Files.write(outputDir.resolve(run.name + ".err"), err.toByteArray());
+        }
+        return new Result(run, status, millis, new byte[0], new byte[0]);
+    }
+
+    private static void report(Result result, boolean withOutput) {
+        PrintStream stdout = System.out;
+        stdout.println(String.format("%3d %10.1f ms  %s", result.status, result.millis, result.run.name));
+        if (withOutput) {
+            stdout.writeBytes(result.out);
+            stdout.flush();
+            System.err.writeBytes(result.err);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package lox;
+
+import java.time.Duration;
+
+// Limits on what a single run may consume. Fuel is spent one unit per loop iteration and per function call; the
+// timeout is wall-clock time from the start of the run; allocations count the environments (blocks and calls) and
+// instances created. A run that exceeds any of them stops with a runtime error. Tasks and parallel workers spend
+// from the run's budget.
+public final class LoxBudget {
+    public static final LoxBudget UNLIMITED = new LoxBudget(Long.MAX_VALUE, null, Long.MAX_VALUE);
+
+    final long fuel;
+    final Duration timeout;
+    final long allocations;
+
+    private LoxBudget(long fuel, Duration timeout, long allocations) {
+        this.fuel = fuel;
+        this.timeout = timeout;
+        this.allocations = allocations;
+    }
+
+    public LoxBudget withFuel(long fuel) {
+        if (fuel <= 0) {
+            throw new IllegalArgumentException("Fuel must be positive.");
+        }
+        return new LoxBudget(fuel, timeout, allocations);
+    }
+
+    public LoxBudget withTimeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive.");
+        }
+        return new LoxBudget(fuel, timeout, allocations);
+    }
+
+    public LoxBudget withAllocations(long allocations) {
+        if (allocations <= 0) {
+            throw new IllegalArgumentException("Allocations must be positive.");
+        }
+        return new LoxBudget(fuel, timeout, allocations);
+    }
+
+    boolean isUnlimited() {
+        return fuel == Long.MAX_VALUE && timeout == null && allocations == Long.MAX_VALUE;
+    }
+
+    // Applies a command-line budget option, or returns null when `arg` isn't one.
+    static LoxBudget withOption(LoxBudget budget, String arg) {
+        if (arg.matches("--fuel=[1-9][0-9]{0,17}")) {
+            return budget.withFuel(Long.parseLong(arg.substring(7)));
+        } else if (arg.matches("--timeout=[1-9][0-9]{0,11}")) {
+            return budget.withTimeout(Duration.ofMillis(Long.parseLong(arg.substring(10))));
+        } else if (arg.matches("--max-allocations=[1-9][0-9]{0,17}")) {
+            return budget.withAllocations(Long.parseLong(arg.substring(18)));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package lox;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+
+// A bounded FIFO queue between tasks. It is only touched with the context's GlobalLock held, and waits on that
+// lock's conditions, so a task blocked in send or receive lets the others run.
+class LoxChannel extends NativeObject {
+    private static final Map<String, NativeMethod<LoxChannel>> METHODS = NativeMethod.table(
+        new NativeMethod<>("send", 1, (channel, interpreter, arguments) -> {
+            channel.send(interpreter, arguments.get(0));
+            return null;
+        }),
+        // Returns nil once the channel is closed and everything sent before has been received.
+        new NativeMethod<>("receive", 0, (channel, interpreter, arguments) -> channel.receive(interpreter)),
+        new NativeMethod<>("close", 0, (channel, interpreter, arguments) -> {
+            channel.close();
+            return null;
+        }),
+        new NativeMethod<>("len", 0, (channel, interpreter, arguments) -> (double) channel.buffer.size()));
+
+    private final GlobalLock lock;
+    private final ArrayDeque<Object> buffer;
+    private final int capacity;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private boolean closed = false;
+
+    LoxChannel(GlobalLock lock, int capacity) {
+        this.lock = lock;
+        this.buffer = new ArrayDeque<>(capacity);
+        this.capacity = capacity;
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+    }
+
+    @Override
+    String typeName() {
+        return "channel";
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    private void send(Interpreter interpreter, Object value) {
+        while (buffer.size() == capacity && !closed) {
+            interpreter.await(notFull);
+        }
+        if (closed) {
+            throw new NativeError("Cannot send on a closed channel.");
+        }
+        buffer.add(value == null ? Nil.VALUE : value);
+        lock.signal(notEmpty);
+    }
+
+    private Object receive(Interpreter interpreter) {
+        while (buffer.isEmpty() && !closed) {
+            interpreter.await(notEmpty);
+        }
+        Object value = buffer.poll();
+        if (value == null) {
+            return null;
+        }
+        lock.signal(notFull);
+        return value == Nil.VALUE ? null : value;
+    }
+
+    private void close() {
+        closed = true;
+        lock.signalAll(notEmpty);
+        lock.signalAll(notFull);
+    }
+
+    // ArrayDeque can't hold null, so a sent nil travels as this marker.
+    private enum Nil {
+        VALUE
+    }
+}
@@ -31,6 +31,7 @@ class LoxClass implements LoxCallable {
 
     @Override
     public Object call(Interpreter interpreter, List<Object> arguments) {
+        interpreter.allocations++;
         LoxInstance instance = new LoxInstance(this);
         LoxFunction initializer = findMethod("init");
         if (initializer != null) {
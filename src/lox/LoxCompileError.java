@@ -0,0 +1,8 @@
+package lox;
+
+// Thrown by LoxEngine.compile; the message holds every error reported, one per line.
+public class LoxCompileError extends RuntimeException {
+    LoxCompileError(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,101 @@
+package lox;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+// One isolated Lox session: its own globals, natives, input, output and error stream. Scripts run one after the
+// other share globals, like lines typed into the REPL. A context is not thread-safe; use one per thread. Tasks a
+// script spawns run on their own threads but belong to the context, and run() waits for all of them.
+public final class LoxContext {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_COMPILE_ERROR = 65;
+    public static final int EXIT_RUNTIME_ERROR = 70;
+
+    private final LoxEngine engine;
+    private final Interpreter interpreter;
+    private LoxBudget budget = LoxBudget.UNLIMITED;
+
+    LoxContext(LoxEngine engine, LoxOutput output, LoxInput input, PrintStream err, GlobalLock lock) {
+        this.engine = engine;
+        this.interpreter = new Interpreter(output, input, new ErrorReporter(err), lock);
+        engine.installNatives(interpreter);
+    }
+
+    // Limits every later run of this context. Scripts that exceed them stop with a runtime error.
+    public void setBudget(LoxBudget budget) {
+        this.budget = budget;
+    }
+
+    // Runs scripts, and the tasks they spawn, on platform threads with a `bytes` stack, bounding how deep Lox code can
+    // recurse: a Lox call takes 0.4 to 1.5 KiB, the less the more of the interpreter the JIT has compiled. With 0, the
+    // default, scripts run on the thread calling run() and tasks on virtual threads. Recursing too deep is a runtime
+    // error either way.
+    public void setStackSize(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Stack size must not be negative.");
+        }
+        interpreter.stackSize = bytes;
+    }
+
+    // Runs a script compiled by this context's engine and returns EXIT_OK or EXIT_RUNTIME_ERROR. Output is flushed
+    // before returning.
+    public int run(LoxScript script) {
+        interpreter.reporter.reset();
+        if (interpreter.stackSize == 0) {
+            interpreter.interpret(script.statements, budget);
+        } else {
+            interpretOnOwnStack(script);
+        }
+        interpreter.flush();
+        return interpreter.reporter.hadRuntimeError ? EXIT_RUNTIME_ERROR : EXIT_OK;
+    }
+
+    private void interpretOnOwnStack(LoxScript script) {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = Thread.ofPlatform().name("lox-main").stackSize(interpreter.stackSize).start(() -> {
+            try {
+                interpreter.interpret(script.statements, budget);
+            } catch (Throwable error) {
+                failure[0] = error;
+            }
+        });
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException error) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure[0] instanceof RuntimeException error) {
+            throw error;
+        } else if (failure[0] instanceof Error error) {
+            throw error;
+        }
+    }
+
+    // Compiles and runs `source`, reporting compile errors to this context's error stream.
+    public int eval(String source) {
+        interpreter.reporter.reset();
+        return runCompiled(engine.compile(source, interpreter.reporter));
+    }
+
+    int run(byte[] source) {
+        interpreter.reporter.reset();
+        return runCompiled(engine.compile(source, interpreter.reporter));
+    }
+
+    private int runCompiled(LoxScript script) {
+        return script == null ? EXIT_COMPILE_ERROR : run(script);
+    }
+
+    int run(ByteBuffer program) {
+        return run(engine.load(program, interpreter.reporter));
+    }
+}
@@ -0,0 +1,122 @@
+package lox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Entry point for embedding Lox. An engine holds what is shared between runs (optimization level, Java natives,
+// the program cache) and compiles scripts; each LoxContext it creates has its own globals, input, output and
+// error stream. Nothing here is static, so any number of engines and contexts can live in one JVM.
+public final class LoxEngine {
+    private final PassManager passManager;
+    private final NativeRegistry natives;
+    private final ProgramCache cache;
+
+    public LoxEngine() {
+        this(PassManager.DEFAULT_LEVEL, new NativeRegistry());
+    }
+
+    public LoxEngine(int optimizationLevel, NativeRegistry natives) {
+        this(new PassManager(checkLevel(optimizationLevel), false, false, System.err), natives, null);
+    }
+
+    LoxEngine(PassManager passManager, NativeRegistry natives, ProgramCache cache) {
+        this.passManager = passManager;
+        this.natives = natives;
+        this.cache = cache;
+    }
+
+    private static int checkLevel(int level) {
+        if (level < 0 || level > PassManager.MAX_LEVEL) {
+            throw new IllegalArgumentException(String.format("Optimization level must be between 0 and %d.", PassManager.MAX_LEVEL));
+        }
+        return level;
+    }
+
+    public LoxScript compile(String source) {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        LoxScript script = compile(source, new ErrorReporter(new PrintStream(errors, true, StandardCharsets.UTF_8)));
+        if (script == null) {
+            throw new LoxCompileError(errors.toString(StandardCharsets.UTF_8).strip());
+        }
+        return script;
+    }
+
+    // Standard input, output and error of the process. Output is buffered until the end of every run.
+    public LoxContext newContext() {
+        return newContext(LoxOutput.stdout("exit"), System.err);
+    }
+
+    // Input and output are UTF-8; output is buffered until the end of every run.
+    public LoxContext newContext(InputStream in, OutputStream out, OutputStream err) {
+        LoxOutput output = new LoxOutput(out, StandardCharsets.UTF_8);
+        GlobalLock lock = new GlobalLock();
+        LoxInput input = new LoxInput(in, StandardCharsets.UTF_8, lock.guard(output::flush));
+        return new LoxContext(this, output, input, new PrintStream(err, true, StandardCharsets.UTF_8), lock);
+    }
+
+    LoxContext newContext(LoxOutput output, PrintStream err) {
+        GlobalLock lock = new GlobalLock();
+        return new LoxContext(this, output, LoxInput.stdin(lock.guard(output::flush)), err, lock);
+    }
+
+    void installNatives(Interpreter interpreter) {
+        natives.install(interpreter);
+    }
+
+    LoxScript compile(String source, ErrorReporter reporter) {
+        List<Stmt> statements = parse(source, reporter);
+        return statements == null ? null : optimize(statements, reporter);
+    }
+
+    // Source files go through the program cache, when there is one, so unchanged files skip parsing.
+    LoxScript compile(byte[] source, ErrorReporter reporter) {
+        if (cache == null) {
+            return compile(new String(source, Charset.defaultCharset()), reporter);
+        }
+
+        String key = ProgramCache.key(source);
+        List<Stmt> statements = cache.load(key);
+        if (statements == null) {
+            statements = parse(new String(source, Charset.defaultCharset()), reporter);
+            if (statements == null) {
+                return null;
+            }
+            cache.store(key, statements);
+        }
+        return optimize(statements, reporter);
+    }
+
+    LoxScript load(ByteBuffer program, ErrorReporter reporter) {
+        return optimize(new AstReader(program).read(), reporter);
+    }
+
+    private LoxScript optimize(List<Stmt> statements, ErrorReporter reporter) {
+        return new LoxScript(passManager.run(statements, reporter));
+    }
+
+    static List<Stmt> parse(String source, ErrorReporter reporter) {
+        Scanner scanner = new Scanner(source, reporter);
+        List<Token> tokens = scanner.scanTokens();
+        Parser parser = new Parser(tokens, reporter);
+        List<Stmt> statements = parser.parse();
+
+        if (reporter.hadError) {
+            return null;
+        }
+
+        Resolver resolver = new Resolver(reporter);
+        resolver.resolve(statements);
+
+        if (reporter.hadError) {
+            return null;
+        }
+
+        return statements;
+    }
+}
@@ -0,0 +1,90 @@
+package lox;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+class LoxFileWriter extends NativeObject {
+    private static final Map<String, NativeMethod<LoxFileWriter>> METHODS = NativeMethod.table(
+        new NativeMethod<>("write", 1, (writer, interpreter, arguments) -> {
+            writer.checkOpen().write(interpreter.stringify(arguments.get(0)));
+            return null;
+        }),
+        new NativeMethod<>("write_line", 1, (writer, interpreter, arguments) -> {
+            writer.checkOpen().println(interpreter.stringify(arguments.get(0)));
+            return null;
+        }),
+        new NativeMethod<>("flush", 0, (writer, interpreter, arguments) -> {
+            writer.flush();
+            return null;
+        }),
+        new NativeMethod<>("close", 0, (writer, interpreter, arguments) -> {
+            interpreter.writers.remove(writer);
+            writer.close();
+            return null;
+        }));
+
+    private final String path;
+    private OutputStream stream;
+    private LoxOutput output;
+
+    LoxFileWriter(String path, boolean append) {
+        this.path = path;
+        try {
+            if (append) {
+                stream = Files.newOutputStream(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } else {
+                stream = Files.newOutputStream(Path.of(path));
+            }
+        } catch (IOException | RuntimeException error) {
+            throw new NativeError(String.format("Could not open `%s`: %s", path, error.getMessage()));
+        }
+        output = new LoxOutput(stream, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    String typeName() {
+        return String.format("writer `%s`", path);
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    void flush() {
+        LoxOutput output = checkOpen();
+        output.flush();
+        if (output.failed()) {
+            throw new NativeError(String.format("Could not write to `%s`.", path));
+        }
+    }
+
+    void close() {
+        if (output == null) {
+            return;
+        }
+        output.flush();
+        boolean failed = output.failed();
+        output = null;
+        try {
+            stream.close();
+        } catch (IOException error) {
+            throw new NativeError(String.format("Could not close `%s`: %s", path, error.getMessage()));
+        }
+        if (failed) {
+            throw new NativeError(String.format("Could not write to `%s`.", path));
+        }
+    }
+
+    private LoxOutput checkOpen() {
+        if (output == null) {
+            throw new NativeError(String.format("Writer for `%s` is closed.", path));
+        }
+        return output;
+    }
+}
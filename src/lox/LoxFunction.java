@@ -3,9 +3,12 @@ package lox;
 import java.util.List;
 
 class LoxFunction implements LoxCallable {
-    private final Stmt.Function declaration;
+    // What evaluating a TailCall node returns: the call to make once the current one has unwound.
+    record TailCall(LoxFunction function, List<Object> arguments) {}
+
+    final Stmt.Function declaration;
     private final Environment closure;
-    private final boolean isInitializer;
+    final boolean isInitializer;
 
     LoxFunction(Stmt.Function declaration, Environment closure, boolean isInitializer) {
         this.declaration = declaration;
@@ -24,8 +27,30 @@ class LoxFunction implements LoxCallable {
         return declaration.params.size();
     }
 
+    // Tail calls come back from the body as a TailCall value and run in this loop, in place of the frame that made
+    // them.
     @Override
     public Object call(Interpreter interpreter, List<Object> arguments) {
+        LoxFunction function = this;
+        while (true) {
+            Object result;
+            try {
+                result = function.invoke(interpreter, arguments);
+            } catch (RuntimeError error) {
+                error.leave(function.declaration.name.lexeme);
+                throw error;
+            }
+            if (!(result instanceof TailCall tail)) {
+                return result;
+            }
+            function = tail.function;
+            arguments = tail.arguments;
+        }
+    }
+
+    private Object invoke(Interpreter interpreter, List<Object> arguments) {
+        interpreter.step(declaration.name);
+        interpreter.allocations++;
         Environment environment = new Environment(closure);
 
         for (int i = 0; i < declaration.params.size(); i++) {
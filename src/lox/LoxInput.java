@@ -0,0 +1,173 @@
+package lox;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Buffered line reader over raw bytes. Lines end at "\n" or "\r\n"; the last line may be unterminated. `beforeFill`
+// runs whenever the reader is about to block on the underlying stream, which is where buffered output has to be
+// flushed so prompts show up. Reads are serialized by `lock`, because tasks read without holding the GlobalLock;
+// `beforeFill` may take the GlobalLock, so nothing may wait for `lock` while holding it. A run with a deadline reads
+// on a thread of its own and stops waiting for it at the deadline; a run without one reads directly.
+class LoxInput {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream source;
+    private final Charset charset;
+    private final Runnable beforeFill;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private volatile long lineNumber = 0;
+    private byte[] pending = new byte[256];
+    private final ReentrantLock lock = new ReentrantLock();
+    // A read into `buffer` that a deadline stopped waiting for. The next fill takes its result instead of reading
+    // again; nothing else touches the buffer meanwhile, since it had been used up when the read started.
+    private FutureTask<Integer> unfinished = null;
+
+    LoxInput(InputStream source, Charset charset, Runnable beforeFill) {
+        this.source = source;
+        this.charset = charset;
+        this.beforeFill = beforeFill;
+    }
+
+    static LoxInput stdin(Runnable beforeFill) {
+        return new LoxInput(new FileInputStream(FileDescriptor.in), Charset.defaultCharset(), beforeFill);
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    String readLine(BudgetMeter meter) {
+        lock.lock();
+        try {
+            return nextLine(meter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String readAll(BudgetMeter meter) {
+        lock.lock();
+        try {
+            return remaining(meter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String nextLine(BudgetMeter meter) {
+        int pendingLength = 0;
+
+        while (true) {
+            for (int i = position; i < limit; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+
+                String line;
+                if (pendingLength == 0) {
+                    line = decode(buffer, position, trimCarriageReturn(buffer, position, i));
+                } else {
+                    pendingLength = append(pendingLength, position, i);
+                    line = decode(pending, 0, trimCarriageReturn(pending, 0, pendingLength));
+                }
+                position = i + 1;
+                lineNumber++;
+                return line;
+            }
+
+            pendingLength = append(pendingLength, position, limit);
+            position = limit;
+            if (!fill(meter)) {
+                if (pendingLength == 0) {
+                    return null;
+                }
+                lineNumber++;
+                return decode(pending, 0, trimCarriageReturn(pending, 0, pendingLength));
+            }
+        }
+    }
+
+    private String remaining(BudgetMeter meter) {
+        int length = 0;
+        do {
+            length = append(length, position, limit);
+            position = limit;
+        } while (fill(meter));
+
+        for (int i = 0; i < length; i++) {
+            if (pending[i] == '\n') {
+                lineNumber++;
+            }
+        }
+        if (length > 0 && pending[length - 1] != '\n') {
+            lineNumber++;
+        }
+        return decode(pending, 0, length);
+    }
+
+    private int append(int length, int from, int to) {
+        int count = to - from;
+        if (length + count > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, length + count));
+        }
+        System.arraycopy(buffer, from, pending, length, count);
+        return length + count;
+    }
+
+    private boolean fill(BudgetMeter meter) {
+        if (eof) {
+            return false;
+        }
+
+        beforeFill.run();
+        try {
+            int count;
+            if (unfinished == null && !meter.hasDeadline()) {
+                count = source.read(buffer, 0, buffer.length);
+            } else {
+                if (unfinished == null) {
+                    unfinished = new FutureTask<>(() -> source.read(buffer, 0, buffer.length));
+                    Thread.ofVirtual().start(unfinished);
+                }
+                count = meter.await(unfinished);
+                unfinished = null;
+            }
+            if (count <= 0) {
+                eof = true;
+                return false;
+            }
+            position = 0;
+            limit = count;
+            return true;
+        } catch (IOException error) {
+            throw new NativeError(String.format("Could not read input: %s", error.getMessage()));
+        } catch (ExecutionException error) {
+            unfinished = null;
+            throw new NativeError(String.format("Could not read input: %s", error.getCause().getMessage()));
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new NativeError("Interrupted while reading input.");
+        }
+    }
+
+    private String decode(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, charset);
+    }
+
+    private static int trimCarriageReturn(byte[] bytes, int from, int to) {
+        if (to > from && bytes[to - 1] == '\r') {
+            return to - 1;
+        }
+        return to;
+    }
+}
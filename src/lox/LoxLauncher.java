@@ -0,0 +1,23 @@
+package lox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public class LoxLauncher {
+    static final String PROGRAM_RESOURCE = "lox/program.jloxc";
+
+    public static void main(String[] args) throws IOException {
+        byte[] program;
+        try (InputStream in = LoxLauncher.class.getClassLoader().getResourceAsStream(PROGRAM_RESOURCE)) {
+            if (in == null) {
+                System.err.println("No packaged Lox program found on the class path.");
+                System.exit(66);
+                return;
+            }
+            program = in.readAllBytes();
+        }
+
+        Lox.runPackaged(ByteBuffer.wrap(program));
+    }
+}
@@ -0,0 +1,175 @@
+package lox;
+
+import java.util.Map;
+
+// Insertion-ordered hash map. Entries are appended to parallel dense arrays in insertion order; `slots` is an
+// open-addressing table (linear probing) of entry index + 1, with EMPTY and DELETED markers. Keys compare the way
+// `==` does in Lox (Interpreter.isEqual), which for numbers is Double.equals; ropes are flattened before hashing.
+class LoxMap extends NativeObject {
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final Object REMOVED = new Object();
+    private static final int INITIAL_CAPACITY = 8;
+    private static final Map<String, NativeMethod<LoxMap>> METHODS = NativeMethod.table(
+        new NativeMethod<>("get", 1, (map, interpreter, arguments) -> map.get(arguments.get(0)), true),
+        new NativeMethod<>("set", 2, (map, interpreter, arguments) -> {
+            map.set(arguments.get(0), arguments.get(1));
+            return null;
+        }),
+        new NativeMethod<>("has", 1, (map, interpreter, arguments) -> map.find(arguments.get(0)) >= 0, true),
+        new NativeMethod<>("remove", 1, (map, interpreter, arguments) -> map.remove(arguments.get(0))),
+        new NativeMethod<>("len", 0, (map, interpreter, arguments) -> (double) map.size, true),
+        new NativeMethod<>("keys", 0, (map, interpreter, arguments) -> map.collect(map.keys), true),
+        new NativeMethod<>("values", 0, (map, interpreter, arguments) -> map.collect(map.values), true));
+
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int entries = 0;
+    private int size = 0;
+
+    @Override
+    String typeName() {
+        return "map";
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    Object get(Object key) {
+        int slot = find(key);
+        return slot < 0 ? null : values[slots[slot] - 1];
+    }
+
+    void set(Object key, Object value) {
+        key = LoxRope.flatten(key);
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int firstDeleted = -1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                if (firstDeleted >= 0) {
+                    slot = firstDeleted;
+                }
+                insert(slot, key, value, hash);
+                return;
+            } else if (entry == DELETED) {
+                if (firstDeleted < 0) {
+                    firstDeleted = slot;
+                }
+            } else if (hashes[entry - 1] == hash && matches(keys[entry - 1], key)) {
+                values[entry - 1] = value;
+                return;
+            }
+        }
+    }
+
+    private Object remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        int entry = slots[slot] - 1;
+        Object value = values[entry];
+        keys[entry] = REMOVED;
+        values[entry] = null;
+        slots[slot] = DELETED;
+        size--;
+        return value;
+    }
+
+    private int find(Object key) {
+        key = LoxRope.flatten(key);
+        int hash = hash(key);
+        int mask = slots.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return -1;
+            } else if (entry != DELETED && hashes[entry - 1] == hash && matches(keys[entry - 1], key)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(int slot, Object key, Object value, int hash) {
+        if (entries == keys.length) {
+            // Dense arrays are full: either squeeze out removed entries or grow, and rebuild the slot table.
+            int capacity = size * 2 >= keys.length ? keys.length * 2 : keys.length;
+            rebuild(capacity);
+            set(key, value);
+            return;
+        }
+
+        keys[entries] = key;
+        values[entries] = value;
+        hashes[entries] = hash;
+        entries++;
+        slots[slot] = entries;
+        size++;
+    }
+
+    private void rebuild(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldEntries = entries;
+
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        slots = new int[capacity * 2];
+        entries = 0;
+
+        int mask = slots.length - 1;
+        for (int i = 0; i < oldEntries; i++) {
+            if (oldKeys[i] == REMOVED) {
+                continue;
+            }
+            keys[entries] = oldKeys[i];
+            values[entries] = oldValues[i];
+            hashes[entries] = oldHashes[i];
+            int slot = oldHashes[i] & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = ++entries;
+        }
+    }
+
+    private LoxArray collect(Object[] source) {
+        LoxArray array = new LoxArray();
+        for (int i = 0; i < entries; i++) {
+            if (keys[i] != REMOVED) {
+                array.push(source[i]);
+            }
+        }
+        return array;
+    }
+
+    private static int hash(Object key) {
+        if (key instanceof Double number) {
+            // Integral doubles differ only in their high bits; a multiplicative mix moves them into the low bits the
+            // mask keeps. doubleToLongBits matches Double.equals: NaNs collapse, 0.0 and -0.0 stay apart.
+            return (int) ((Double.doubleToLongBits(number) * 0x9E3779B97F4A7C15L) >>> 32);
+        } else if (key instanceof String string) {
+            int hash = string.hashCode();
+            return hash ^ (hash >>> 16);
+        } else if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(Object stored, Object key) {
+        return stored == key || stored != null && stored.equals(key);
+    }
+}
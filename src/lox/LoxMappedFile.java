@@ -0,0 +1,157 @@
+package lox;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+// Read-only file accessed through a sliding memory-mapped window, so only the current line or record is ever
+// copied onto the heap regardless of file size.
+class LoxMappedFile extends NativeObject {
+    private static final long WINDOW_SIZE = 1L << 26;
+    private static final Map<String, NativeMethod<LoxMappedFile>> METHODS = NativeMethod.table(
+        new NativeMethod<>("read_line", 0, (file, interpreter, arguments) -> file.readLine()),
+        new NativeMethod<>("read_record", 1, (file, interpreter, arguments) ->
+            file.readRecord(checkIndex(arguments.get(0), "Record size"))),
+        new NativeMethod<>("size", 0, (file, interpreter, arguments) -> (double) file.size),
+        new NativeMethod<>("position", 0, (file, interpreter, arguments) -> (double) file.position),
+        new NativeMethod<>("seek", 1, (file, interpreter, arguments) -> {
+            file.seek(checkIndex(arguments.get(0), "Position"));
+            return null;
+        }),
+        new NativeMethod<>("close", 0, (file, interpreter, arguments) -> {
+            file.close();
+            return null;
+        }));
+
+    private final String path;
+    private FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long position = 0;
+    private byte[] scratch = new byte[256];
+
+    LoxMappedFile(String path) {
+        this.path = path;
+        try {
+            channel = FileChannel.open(Path.of(path), StandardOpenOption.READ);
+            size = channel.size();
+        } catch (IOException | RuntimeException error) {
+            throw new NativeError(String.format("Could not open `%s`: %s", path, error.getMessage()));
+        }
+    }
+
+    @Override
+    String typeName() {
+        return String.format("file `%s`", path);
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    private String readLine() {
+        checkOpen();
+        if (position >= size) {
+            return null;
+        }
+
+        int length = 0;
+        while (position < size) {
+            MappedByteBuffer buffer = windowAt(position);
+            int from = (int) (position - windowStart);
+            int limit = buffer.limit();
+
+            int end = from;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+
+            length = copy(buffer, from, end, length);
+            position = windowStart + end;
+            if (end < limit) {
+                position++;
+                break;
+            }
+        }
+
+        if (length > 0 && scratch[length - 1] == '\r') {
+            length--;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String readRecord(long recordSize) {
+        checkOpen();
+        if (position >= size) {
+            return null;
+        }
+        if (recordSize > Integer.MAX_VALUE - 8) {
+            throw new NativeError("Record size is too large.");
+        }
+
+        long end = Math.min(size, position + recordSize);
+        int length = 0;
+        while (position < end) {
+            MappedByteBuffer buffer = windowAt(position);
+            int from = (int) (position - windowStart);
+            int to = (int) Math.min(buffer.limit(), end - windowStart);
+            length = copy(buffer, from, to, length);
+            position = windowStart + to;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void seek(long target) {
+        checkOpen();
+        position = Math.min(target, size);
+    }
+
+    private void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException error) {
+            throw new NativeError(String.format("Could not close `%s`: %s", path, error.getMessage()));
+        } finally {
+            channel = null;
+            window = null;
+        }
+    }
+
+    private MappedByteBuffer windowAt(long offset) {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            long length = Math.min(WINDOW_SIZE, size - offset);
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            } catch (IOException error) {
+                throw new NativeError(String.format("Could not map `%s`: %s", path, error.getMessage()));
+            }
+            windowStart = offset;
+        }
+        return window;
+    }
+
+    private int copy(MappedByteBuffer buffer, int from, int to, int length) {
+        int count = to - from;
+        if (length + count > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length + count));
+        }
+        buffer.get(from, scratch, length, count);
+        return length + count;
+    }
+
+    private void checkOpen() {
+        if (channel == null) {
+            throw new NativeError(String.format("File `%s` is closed.", path));
+        }
+    }
+}
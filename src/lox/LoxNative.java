@@ -0,0 +1,14 @@
+package lox;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a public static method for NativeRegistry.register. `value` is the global name in Lox, defaulting to the
+// method's own name.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LoxNative {
+    String value() default "";
+}
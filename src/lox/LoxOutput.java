@@ -0,0 +1,159 @@
+package lox;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Unsynchronized, buffered sink for `print`. Output is flushed when the buffer fills, according to the flush
+// policy (after every line, or once a byte threshold is reached), before reading input, and explicitly by the
+// driver on errors and exit.
+class LoxOutput {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream sink;
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    private final boolean lineBuffered;
+    private final int threshold;
+    private final byte[] buffer;
+    private final byte[] digits = new byte[NumberFormatter.MAX_LENGTH];
+    private int count = 0;
+    private boolean failed = false;
+
+    LoxOutput(OutputStream sink, Charset charset) {
+        this(sink, charset, false, DEFAULT_BUFFER_SIZE);
+    }
+
+    LoxOutput(OutputStream sink, Charset charset, boolean lineBuffered, int threshold) {
+        this.sink = sink;
+        this.charset = charset;
+        this.asciiCompatible = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+            || charset.equals(StandardCharsets.ISO_8859_1);
+        this.lineBuffered = lineBuffered;
+        this.threshold = threshold;
+        this.buffer = new byte[Math.max(threshold, DEFAULT_BUFFER_SIZE)];
+    }
+
+    static LoxOutput stdout(String policy) {
+        OutputStream sink = new FileOutputStream(FileDescriptor.out);
+        Charset charset = System.out.charset();
+
+        if (policy == null) {
+            policy = System.console() != null ? "line" : "exit";
+        }
+        return switch (policy) {
+            case "line" -> new LoxOutput(sink, charset, true, DEFAULT_BUFFER_SIZE);
+            case "exit" -> new LoxOutput(sink, charset, false, DEFAULT_BUFFER_SIZE);
+            default -> new LoxOutput(sink, charset, false, Integer.parseInt(policy));
+        };
+    }
+
+    static boolean isValidPolicy(String policy) {
+        return policy.equals("line") || policy.equals("exit") || policy.matches("[1-9][0-9]{0,8}");
+    }
+
+    void println(CharSequence text) {
+        write(text);
+        endLine();
+    }
+
+    void printNumber(double value) {
+        int start = NumberFormatter.isPlainInteger(value)
+            ? NumberFormatter.writeDigits(value, digits, digits.length)
+            : NumberFormatter.writeDecimal(value, digits, digits.length);
+        if (start >= 0) {
+            write(digits, start, digits.length - start);
+        } else {
+            write(NumberFormatter.formatWithJava(value));
+        }
+        endLine();
+    }
+
+    private void endLine() {
+        writeAscii('\n');
+        if (lineBuffered || count >= threshold) {
+            flush();
+        }
+    }
+
+    void write(CharSequence text) {
+        int length = text.length();
+        if (asciiCompatible) {
+            int i = 0;
+            while (i < length) {
+                char ch = text.charAt(i);
+                if (ch >= 0x80) {
+                    break;
+                }
+                if (count == buffer.length) {
+                    drain();
+                }
+                buffer[count++] = (byte) ch;
+                i++;
+            }
+            if (i == length) {
+                return;
+            }
+            text = text.subSequence(i, length);
+        }
+
+        byte[] bytes = text.toString().getBytes(charset);
+        write(bytes, 0, bytes.length);
+    }
+
+    void writeAscii(char ch) {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) ch;
+    }
+
+    void write(byte[] bytes, int offset, int length) {
+        if (length > buffer.length - count) {
+            drain();
+        }
+        if (length > buffer.length) {
+            writeThrough(bytes, offset, length);
+            return;
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    boolean failed() {
+        return failed;
+    }
+
+    void flush() {
+        drain();
+        if (!failed) {
+            try {
+                sink.flush();
+            } catch (IOException error) {
+                failed = true;
+            }
+        }
+    }
+
+    private void drain() {
+        if (count > 0) {
+            writeThrough(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    // Like System.out, a closed pipe (`jlox script | head`) silently discards the rest of the output.
+    private void writeThrough(byte[] bytes, int offset, int length) {
+        if (failed) {
+            return;
+        }
+        try {
+            sink.write(bytes, offset, length);
+        } catch (IOException error) {
+            failed = true;
+        }
+    }
+}
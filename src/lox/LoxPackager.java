@@ -0,0 +1,111 @@
+package lox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+// Packages a script as an executable jar: its resolved AST, written exactly like a program cache entry, next to the
+// runtime classes, run by LoxLauncher. A packaged program is a cache entry that travels with its interpreter.
+public class LoxPackager {
+    // Entry points of the command-line tools, which a packaged program never needs.
+    private static final List<String> TOOLS = List.of("LoxPackager", "LoxBatch");
+
+    public static void main(String[] args) throws IOException {
+        String output = null;
+        String input = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                output = args[++i];
+            } else if (input == null) {
+                input = args[i];
+            } else {
+                input = null;
+                break;
+            }
+        }
+
+        if (input == null) {
+            System.out.println("Usage: jlox-package [-o output.jar] script");
+            System.exit(64);
+        }
+        if (output == null) {
+            output = input.replaceFirst("\\.lox$", "") + ".jar";
+        }
+
+        byte[] bytes = Files.readAllBytes(Paths.get(input));
+        List<Stmt> statements = LoxEngine.parse(new String(bytes, Charset.defaultCharset()), new ErrorReporter(System.err));
+        if (statements == null) {
+            System.exit(LoxContext.EXIT_COMPILE_ERROR);
+        }
+
+        byte[] program = new AstWriter().write(statements);
+        writeJar(Paths.get(output), program);
+    }
+
+    private static void writeJar(Path output, byte[] program) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, LoxLauncher.class.getName());
+
+        try (OutputStream file = Files.newOutputStream(output);
+             JarOutputStream jar = new JarOutputStream(file, manifest)) {
+            jar.putNextEntry(new JarEntry(LoxLauncher.PROGRAM_RESOURCE));
+            jar.write(program);
+            jar.closeEntry();
+
+            copyRuntime(jar);
+        }
+    }
+
+    private static void copyRuntime(JarOutputStream jar) throws IOException {
+        Path location;
+        try {
+            location = Paths.get(LoxPackager.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException error) {
+            throw new IOException(error);
+        }
+
+        if (Files.isDirectory(location)) {
+            copyClasses(jar, location);
+        } else {
+            try (FileSystem archive = FileSystems.newFileSystem(location)) {
+                copyClasses(jar, archive.getPath("/"));
+            }
+        }
+    }
+
+    private static void copyClasses(JarOutputStream jar, Path root) throws IOException {
+        Path packageDir = root.resolve("lox");
+        try (Stream<Path> files = Files.list(packageDir)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".class") || isTool(name)) {
+                    continue;
+                }
+                jar.putNextEntry(new JarEntry("lox/" + name));
+                try (InputStream in = Files.newInputStream(file)) {
+                    in.transferTo(jar);
+                }
+                jar.closeEntry();
+            }
+        }
+    }
+
+    private static boolean isTool(String classFile) {
+        String className = classFile.substring(0, classFile.length() - ".class".length());
+        return TOOLS.stream().anyMatch(tool -> className.equals(tool) || className.startsWith(tool + "$"));
+    }
+}
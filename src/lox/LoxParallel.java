@@ -0,0 +1,175 @@
+package lox;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+// parallel_map and parallel_reduce. The array is split into chunks evaluated on the common ForkJoinPool, every chunk
+// by its own worker Interpreter. The caller keeps the GlobalLock throughout, and workers never yield it, so no task
+// changes shared state while the workers read it. ParallelSafety keeps the workers from changing it themselves,
+// and LoxRope keeps them from appending to strings they share. A failing chunk doesn't end the call on its own:
+// it records its error and cancels the others, and the call rethrows the error once every chunk has stopped, so
+// no worker is still running when the caller carries on.
+final class LoxParallel {
+    // Chunk boundaries depend only on the array's length, so a reduction gives the same result on every machine.
+    private static final int MAX_CHUNKS = 64;
+
+    private LoxParallel() {}
+
+    static LoxArray map(Interpreter interpreter, LoxArray array, Object function) {
+        ParallelSafety safety = check(function, 1);
+        Object[] results = new Object[array.size()];
+        ForkJoinPool.commonPool().invoke(new MapChunk(interpreter, safety, (LoxCallable) function, array, results,
+            0, array.size(), chunkSize(array.size())));
+        safety.throwFailure();
+
+        LoxArray mapped = new LoxArray();
+        for (Object result : results) {
+            mapped.push(result);
+        }
+        return mapped;
+    }
+
+    // `function` has to be associative with `initial` as its identity: every chunk starts from `initial`, and the
+    // chunks' results are combined with `function` too.
+    static Object reduce(Interpreter interpreter, LoxArray array, Object function, Object initial) {
+        ParallelSafety safety = check(function, 2);
+        Object result = ForkJoinPool.commonPool().invoke(new ReduceChunk(interpreter, safety, (LoxCallable) function,
+            array, initial, 0, array.size(), chunkSize(array.size())));
+        safety.throwFailure();
+        return result;
+    }
+
+    private static ParallelSafety check(Object function, int arity) {
+        if (!(function instanceof LoxCallable callable)) {
+            throw new NativeError("Can only run functions in parallel.");
+        }
+        if (callable.arity() != arity) {
+            throw new NativeError(String.format("Expected a function of %d arguments but got one of %d.", arity,
+                callable.arity()));
+        }
+        ParallelSafety safety = new ParallelSafety();
+        String problem = safety.check(function);
+        if (problem != null) {
+            throw new NativeError(problem);
+        }
+        return safety;
+    }
+
+    private static int chunkSize(int size) {
+        return Math.max(1, (size + MAX_CHUNKS - 1) / MAX_CHUNKS);
+    }
+
+    private static final class MapChunk extends RecursiveAction {
+        private final Interpreter interpreter;
+        private final ParallelSafety safety;
+        private final LoxCallable function;
+        private final LoxArray array;
+        private final Object[] results;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+
+        MapChunk(Interpreter interpreter, ParallelSafety safety, LoxCallable function, LoxArray array, Object[] results,
+                int start, int end, int chunkSize) {
+            this.interpreter = interpreter;
+            this.safety = safety;
+            this.function = function;
+            this.array = array;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= chunkSize) {
+                Interpreter worker = interpreter.parallelWorker(safety);
+                try {
+                    for (int i = start; i < end && !safety.failed(); i++) {
+                        results[i] = function.call(worker, Arrays.asList(array.get(i)));
+                    }
+                } catch (RuntimeException | Error error) {
+                    safety.fail(error);
+                } finally {
+                    worker.settle();
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new MapChunk(interpreter, safety, function, array, results, start, middle, chunkSize),
+                new MapChunk(interpreter, safety, function, array, results, middle, end, chunkSize));
+        }
+    }
+
+    private static final class ReduceChunk extends RecursiveTask<Object> {
+        private final Interpreter interpreter;
+        private final ParallelSafety safety;
+        private final LoxCallable function;
+        private final LoxArray array;
+        private final Object initial;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+
+        ReduceChunk(Interpreter interpreter, ParallelSafety safety, LoxCallable function, LoxArray array,
+                Object initial, int start, int end, int chunkSize) {
+            this.interpreter = interpreter;
+            this.safety = safety;
+            this.function = function;
+            this.array = array;
+            this.initial = initial;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Object compute() {
+            if (end - start > chunkSize) {
+                int middle = (start + end) >>> 1;
+                ReduceChunk left = new ReduceChunk(interpreter, safety, function, array, initial, start, middle,
+                    chunkSize);
+                ReduceChunk right = new ReduceChunk(interpreter, safety, function, array, initial, middle, end,
+                    chunkSize);
+                right.fork();
+                // Neither half throws, so the right one is always joined.
+                Object leftResult = left.compute();
+                Object rightResult = right.join();
+                return combine(leftResult, rightResult);
+            }
+
+            Interpreter worker = interpreter.parallelWorker(safety);
+            try {
+                Object accumulator = initial;
+                for (int i = start; i < end && !safety.failed(); i++) {
+                    accumulator = function.call(worker, Arrays.asList(accumulator, array.get(i)));
+                }
+                return accumulator;
+            } catch (RuntimeException | Error error) {
+                safety.fail(error);
+                return null;
+            } finally {
+                worker.settle();
+            }
+        }
+
+        private Object combine(Object left, Object right) {
+            if (safety.failed()) {
+                return null;
+            }
+            Interpreter worker = interpreter.parallelWorker(safety);
+            try {
+                return function.call(worker, Arrays.asList(left, right));
+            } catch (RuntimeException | Error error) {
+                safety.fail(error);
+                return null;
+            } finally {
+                worker.settle();
+            }
+        }
+    }
+}
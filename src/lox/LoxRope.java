@@ -0,0 +1,78 @@
+package lox;
+
+// A Lox string built by `+`. Ropes that extend the same builder share it: appending to the rope that ends at the
+// builder's tail just appends in place, so `s = s + piece;` in a loop stays linear. Anything that needs the
+// characters as a String flattens it once via toString().
+//
+// Only code with the builder's owner appends in place. The owner is null for code running under the GlobalLock, and
+// the parallel worker Interpreter that built the rope otherwise: workers run simultaneously, so a worker extending
+// a builder that others may be reading would corrupt it. Workers copy any rope they don't own instead.
+final class LoxRope implements CharSequence {
+    private static final int MIN_LENGTH = 64;
+
+    private final StringBuilder buffer;
+    private final int length;
+    private final Object owner;
+    private String flat;
+
+    private LoxRope(StringBuilder buffer, int length, Object owner) {
+        this.buffer = buffer;
+        this.length = length;
+        this.owner = owner;
+    }
+
+    // Lox strings are any CharSequence: a String, a LoxRope, or a LoxSlice view.
+    static boolean isString(Object object) {
+        return object instanceof CharSequence;
+    }
+
+    static Object concat(Object left, Object right, Object owner) {
+        CharSequence a = (CharSequence) left;
+        CharSequence b = (CharSequence) right;
+        int length = a.length() + b.length();
+
+        if (a instanceof LoxRope rope && rope.owner == owner && rope.buffer.length() == rope.length) {
+            rope.buffer.append(b);
+            return new LoxRope(rope.buffer, length, owner);
+        } else if (length < MIN_LENGTH) {
+            return a.toString().concat(b.toString());
+        }
+
+        StringBuilder buffer = new StringBuilder(Math.max(length * 2, MIN_LENGTH * 2));
+        buffer.append(a).append(b);
+        return new LoxRope(buffer, length, owner);
+    }
+
+    static Object flatten(Object object) {
+        if (object instanceof CharSequence text && !(object instanceof String)) {
+            return text.toString();
+        }
+        return object;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return buffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (flat == null) {
+            flat = buffer.substring(0, length);
+        }
+        return flat;
+    }
+}
@@ -0,0 +1,14 @@
+package lox;
+
+import java.util.List;
+
+// A compiled program: resolved and optimized, and never modified afterwards, so any number of contexts of the
+// engine that compiled it can run it, on any threads. The Resolver and the passes write the AST annotations
+// (distance, staticType) before this constructor runs; the final field then publishes the whole tree safely.
+public final class LoxScript {
+    final List<Stmt> statements;
+
+    LoxScript(List<Stmt> statements) {
+        this.statements = List.copyOf(statements);
+    }
+}
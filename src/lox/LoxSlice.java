@@ -0,0 +1,72 @@
+package lox;
+
+// A Lox string that is a range of another string's characters. Slices always point at a flat String, never at
+// another slice or a rope, so chains of slicing stay one hop deep. Short slices are copied instead: they are cheap
+// to copy and would otherwise keep a possibly much larger string alive.
+final class LoxSlice implements CharSequence {
+    private static final int MIN_LENGTH = 32;
+
+    private final String base;
+    private final int start;
+    private final int end;
+    private String flat;
+
+    private LoxSlice(String base, int start, int end) {
+        this.base = base;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Characters [start, end) of `text`; the range must already be checked.
+    static Object of(CharSequence text, int start, int end) {
+        String base;
+        if (text instanceof LoxSlice slice) {
+            base = slice.base;
+            start += slice.start;
+            end += slice.start;
+        } else {
+            base = text.toString();
+        }
+
+        if (start == 0 && end == base.length()) {
+            return base;
+        } else if (end - start < MIN_LENGTH) {
+            return base.substring(start, end);
+        }
+        return new LoxSlice(base, start, end);
+    }
+
+    static int indexOf(CharSequence text, String needle, int from) {
+        if (text instanceof LoxSlice slice) {
+            int index = slice.base.indexOf(needle, slice.start + from, slice.end);
+            return index < 0 ? -1 : index - slice.start;
+        }
+        return text.toString().indexOf(needle, from);
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return base.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return base.substring(this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        if (flat == null) {
+            flat = base.substring(start, end);
+        }
+        return flat;
+    }
+}
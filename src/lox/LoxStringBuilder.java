@@ -0,0 +1,42 @@
+package lox;
+
+import java.util.Map;
+
+class LoxStringBuilder extends NativeObject {
+    private static final Map<String, NativeMethod<LoxStringBuilder>> METHODS = NativeMethod.table(
+        // Returns the builder so appends can be chained.
+        new NativeMethod<>("append", 1, (builder, interpreter, arguments) -> {
+            builder.append(arguments.get(0));
+            return builder;
+        }),
+        new NativeMethod<>("len", 0, (builder, interpreter, arguments) -> (double) builder.buffer.length(), true),
+        new NativeMethod<>("clear", 0, (builder, interpreter, arguments) -> {
+            builder.buffer.setLength(0);
+            return null;
+        }),
+        new NativeMethod<>("to_string", 0, (builder, interpreter, arguments) -> builder.buffer.toString(), true));
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Override
+    String typeName() {
+        return "string builder";
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    private void append(Object value) {
+        if (value instanceof CharSequence text) {
+            buffer.append(text);
+        } else if (value instanceof Double number) {
+            buffer.append(NumberFormatter.format(number));
+        } else if (value == null) {
+            buffer.append("nil");
+        } else {
+            buffer.append(value);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package lox;
+
+// String natives. Results that are ranges of an argument come back as LoxSlice views rather than copies.
+final class LoxStrings {
+    private static final String[] ASCII = new String[128];
+
+    static {
+        for (int i = 0; i < ASCII.length; i++) {
+            ASCII[i] = String.valueOf((char) i);
+        }
+    }
+
+    private LoxStrings() {}
+
+    static Object substring(CharSequence text, long start, long end) {
+        int length = text.length();
+        if (start > end || end > length) {
+            throw new NativeError(String.format("Substring range %d..%d is out of bounds for length %d.", start, end, length));
+        }
+        return LoxSlice.of(text, (int) start, (int) end);
+    }
+
+    // Negative positions count from the end; out-of-range positions are clamped.
+    static Object slice(CharSequence text, long start, long end) {
+        int length = text.length();
+        int from = clamp(start < 0 ? start + length : start, length);
+        int to = clamp(end < 0 ? end + length : end, length);
+        return LoxSlice.of(text, from, Math.max(from, to));
+    }
+
+    static double indexOf(CharSequence text, CharSequence needle) {
+        return LoxSlice.indexOf(text, needle.toString(), 0);
+    }
+
+    static LoxArray split(CharSequence text, CharSequence separator) {
+        if (separator.length() == 0) {
+            throw new NativeError("Separator must not be empty.");
+        }
+
+        String needle = separator.toString();
+        LoxArray parts = new LoxArray();
+        int from = 0;
+        int index;
+        while ((index = LoxSlice.indexOf(text, needle, from)) >= 0) {
+            parts.push(LoxSlice.of(text, from, index));
+            from = index + needle.length();
+        }
+        parts.push(LoxSlice.of(text, from, text.length()));
+        return parts;
+    }
+
+    static String charAt(CharSequence text, long index) {
+        if (index >= text.length()) {
+            throw new NativeError(String.format("String index %d is out of bounds for length %d.", index, text.length()));
+        }
+        char ch = text.charAt((int) index);
+        return ch < ASCII.length ? ASCII[ch] : String.valueOf(ch);
+    }
+
+    private static int clamp(long position, int length) {
+        return (int) Math.max(0, Math.min(position, length));
+    }
+}
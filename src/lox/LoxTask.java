@@ -0,0 +1,51 @@
+package lox;
+
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+
+// A function running on its own virtual thread, started by spawn(). Like LoxChannel it is guarded by the context's
+// GlobalLock: the task's thread finishes it with the lock held, and join waits on one of the lock's conditions.
+class LoxTask extends NativeObject {
+    private static final Map<String, NativeMethod<LoxTask>> METHODS = NativeMethod.table(
+        // Returns what the function returned, or nil if it failed with a runtime error.
+        new NativeMethod<>("join", 0, (task, interpreter, arguments) -> {
+            while (!task.done) {
+                interpreter.await(task.finished);
+            }
+            return task.result;
+        }),
+        new NativeMethod<>("done", 0, (task, interpreter, arguments) -> task.done));
+
+    private final GlobalLock lock;
+    private final Condition finished;
+    private boolean done = false;
+    private Object result = null;
+
+    LoxTask(GlobalLock lock) {
+        this.lock = lock;
+        this.finished = lock.newCondition();
+    }
+
+    @Override
+    String typeName() {
+        return "task";
+    }
+
+    @Override
+    NativeMethod<?> method(String name) {
+        return METHODS.get(name);
+    }
+
+    // The end of a run waits without a deadline: the task itself stops at the deadline, or when it deadlocks.
+    void awaitFinished() {
+        while (!done) {
+            lock.awaitThroughDeadlock(finished, finished::await);
+        }
+    }
+
+    void finish(Object result) {
+        this.result = result;
+        this.done = true;
+        lock.signalAll(finished);
+    }
+}
@@ -0,0 +1,8 @@
+package lox;
+enum LoxType {
+    Unknown,
+    Nil,
+    Boolean,
+    Number,
+    String,
+}
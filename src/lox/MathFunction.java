@@ -0,0 +1,63 @@
+package lox;
+
+// Math natives. Each is registered as a global NativeFunction tagged with its constant here; the Intrinsics pass
+// turns calls to them into Expr.Intrinsic nodes that the Interpreter evaluates with a direct Math call.
+enum MathFunction {
+    Abs("abs", 1),
+    Ceil("ceil", 1),
+    Cos("cos", 1),
+    Exp("exp", 1),
+    Floor("floor", 1),
+    Log("log", 1),
+    Max("max", 2),
+    Min("min", 2),
+    Pow("pow", 2),
+    Sin("sin", 1),
+    Sqrt("sqrt", 1),
+    Tan("tan", 1);
+
+    final String name;
+    final int arity;
+
+    MathFunction(String name, int arity) {
+        this.name = name;
+        this.arity = arity;
+    }
+
+    // `y` is ignored by the unary functions.
+    double apply(double x, double y) {
+        return switch (this) {
+            case MathFunction.Abs -> Math.abs(x);
+            case MathFunction.Ceil -> Math.ceil(x);
+            case MathFunction.Cos -> Math.cos(x);
+            case MathFunction.Exp -> Math.exp(x);
+            case MathFunction.Floor -> Math.floor(x);
+            case MathFunction.Log -> Math.log(x);
+            case MathFunction.Max -> Math.max(x, y);
+            case MathFunction.Min -> Math.min(x, y);
+            case MathFunction.Pow -> Math.pow(x, y);
+            case MathFunction.Sin -> Math.sin(x);
+            case MathFunction.Sqrt -> Math.sqrt(x);
+            case MathFunction.Tan -> Math.tan(x);
+        };
+    }
+
+    NativeFunction toNative() {
+        return new NativeFunction(name, arity, (interpreter, arguments) -> {
+            double x = checkNumber(arguments.get(0));
+            double y = arity == 2 ? checkNumber(arguments.get(1)) : 0;
+            return apply(x, y);
+        }, this);
+    }
+
+    private double checkNumber(Object value) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        throw new NativeError(errorMessage());
+    }
+
+    String errorMessage() {
+        return String.format("Arguments to `%s` must be numbers.", name);
+    }
+}
@@ -0,0 +1,8 @@
+package lox;
+
+// Thrown by natives, which have no token to report; the interpreter rethrows it as a RuntimeError at the call site.
+class NativeError extends RuntimeException {
+    NativeError(String message) {
+        super(message, null, false, false);
+    }
+}
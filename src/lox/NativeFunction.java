@@ -0,0 +1,51 @@
+package lox;
+
+import java.util.List;
+
+class NativeFunction implements LoxCallable {
+    interface Body {
+        Object call(Interpreter interpreter, List<Object> arguments);
+    }
+
+    final String name;
+    private final int arity;
+    private final Body body;
+    final MathFunction intrinsic;
+    // Whether parallel_map and parallel_reduce workers may call it: it only reads Lox state and is thread-safe.
+    final boolean parallelSafe;
+
+    NativeFunction(String name, int arity, Body body) {
+        this(name, arity, body, null, false);
+    }
+
+    NativeFunction(String name, int arity, Body body, boolean parallelSafe) {
+        this(name, arity, body, null, parallelSafe);
+    }
+
+    NativeFunction(String name, int arity, Body body, MathFunction intrinsic) {
+        this(name, arity, body, intrinsic, true);
+    }
+
+    private NativeFunction(String name, int arity, Body body, MathFunction intrinsic, boolean parallelSafe) {
+        this.name = name;
+        this.arity = arity;
+        this.body = body;
+        this.intrinsic = intrinsic;
+        this.parallelSafe = parallelSafe;
+    }
+
+    @Override
+    public int arity() {
+        return arity;
+    }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> arguments) {
+        return body.call(interpreter, arguments);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<native fn `%s`>", name);
+    }
+}
@@ -0,0 +1,50 @@
+package lox;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A method shared by every object of one native type, taking the object as its receiver. The Interpreter calls
+// `object.name(...)` through it directly; only reading `object.name` as a value binds it into a NativeFunction.
+final class NativeMethod<T extends NativeObject> {
+    interface Body<T> {
+        Object call(T receiver, Interpreter interpreter, List<Object> arguments);
+    }
+
+    final String name;
+    final int arity;
+    // Like NativeFunction.parallelSafe.
+    final boolean parallelSafe;
+    private final Body<T> body;
+
+    NativeMethod(String name, int arity, Body<T> body) {
+        this(name, arity, body, false);
+    }
+
+    NativeMethod(String name, int arity, Body<T> body, boolean parallelSafe) {
+        this.name = name;
+        this.arity = arity;
+        this.body = body;
+        this.parallelSafe = parallelSafe;
+    }
+
+    @SafeVarargs
+    static <T extends NativeObject> Map<String, NativeMethod<T>> table(NativeMethod<T>... methods) {
+        Map<String, NativeMethod<T>> table = new HashMap<>();
+        for (NativeMethod<T> method : methods) {
+            table.put(method.name, method);
+        }
+        return table;
+    }
+
+    // A type's table only ever holds its own methods, and NativeObject.method only looks in the receiver's table.
+    @SuppressWarnings("unchecked")
+    Object call(NativeObject receiver, Interpreter interpreter, List<Object> arguments) {
+        return body.call((T) receiver, interpreter, arguments);
+    }
+
+    NativeFunction bind(NativeObject receiver) {
+        return new NativeFunction(name, arity, (interpreter, arguments) -> call(receiver, interpreter, arguments),
+            parallelSafe);
+    }
+}
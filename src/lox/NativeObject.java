@@ -0,0 +1,51 @@
+package lox;
+
+abstract class NativeObject {
+    abstract String typeName();
+
+    // Looked up in a table built once per type, so calling a method allocates nothing.
+    abstract NativeMethod<?> method(String name);
+
+    NativeMethod<?> checkMethod(Token name) {
+        NativeMethod<?> method = method(name.lexeme);
+        if (method == null) {
+            throw new RuntimeError(name, String.format("Undefined property `%s`.", name.lexeme));
+        }
+        return method;
+    }
+
+    Object get(Token name) {
+        return checkMethod(name).bind(this);
+    }
+
+    static String checkString(Object value, String what) {
+        return checkText(value, what).toString();
+    }
+
+    // Any Lox string value: a String, a LoxRope or a LoxSlice.
+    static CharSequence checkText(Object value, String what) {
+        if (value instanceof CharSequence text) {
+            return text;
+        }
+        throw new NativeError(String.format("%s must be a string.", what));
+    }
+
+    static long checkInteger(Object value, String what) {
+        if (value instanceof Double number && number == Math.floor(number) && Math.abs(number) <= (double) Long.MAX_VALUE) {
+            return number.longValue();
+        }
+        throw new NativeError(String.format("%s must be an integer.", what));
+    }
+
+    static long checkIndex(Object value, String what) {
+        if (value instanceof Double number && number == Math.floor(number) && number >= 0 && number <= (double) Long.MAX_VALUE) {
+            return number.longValue();
+        }
+        throw new NativeError(String.format("%s must be a non-negative integer.", what));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<%s>", typeName());
+    }
+}
@@ -0,0 +1,180 @@
+package lox;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Binds Java static methods as Lox natives. Each method handle is adapted once, at bind time, into a generic
+// (Object...)Object handle whose argument filters convert Lox values to the declared parameter types and whose
+// return is boxed back into a Lox value, so calls never go through reflection.
+//
+// Parameters may be double, int, long, boolean, String, CharSequence or Object (the raw Lox value); returns may be
+// any of those, float, Double, Boolean, or void (nil).
+public final class NativeRegistry {
+    private static final int MAX_EXACT_ARITY = 4;
+    private static final Set<Class<?>> RETURN_TYPES = Set.of(
+        void.class, double.class, float.class, int.class, long.class, boolean.class,
+        Double.class, Boolean.class, String.class, CharSequence.class, Object.class);
+
+    private static final MethodHandle TO_DOUBLE = converter("toDouble", double.class);
+    private static final MethodHandle TO_INT = converter("toInt", int.class);
+    private static final MethodHandle TO_LONG = converter("toLong", long.class);
+    private static final MethodHandle TO_BOOLEAN = converter("toBoolean", boolean.class);
+    private static final MethodHandle TO_STRING = converter("toFlatString", String.class);
+    private static final MethodHandle TO_TEXT = converter("toText", CharSequence.class);
+
+    private final Map<String, NativeFunction> natives = new LinkedHashMap<>();
+
+    // Binds every public static method of `type` annotated with @LoxNative.
+    public NativeRegistry register(Class<?> type) {
+        for (Method method : type.getMethods()) {
+            LoxNative annotation = method.getAnnotation(LoxNative.class);
+            if (annotation != null) {
+                bind(annotation.value().isEmpty() ? method.getName() : annotation.value(), method);
+            }
+        }
+        return this;
+    }
+
+    public NativeRegistry bind(String name, Method method) {
+        if (!Modifier.isStatic(method.getModifiers())) {
+            throw new IllegalArgumentException(String.format("Native `%s` must be a static method.", name));
+        }
+        try {
+            return bind(name, MethodHandles.publicLookup().unreflect(method));
+        } catch (IllegalAccessException error) {
+            throw new IllegalArgumentException(String.format("Native `%s` is not accessible: %s", name, error.getMessage()), error);
+        }
+    }
+
+    // For methods the registry cannot look up itself (non-public classes), bind a handle from the caller's lookup.
+    public NativeRegistry bind(String name, MethodHandle handle) {
+        natives.put(name, new NativeFunction(name, handle.type().parameterCount(), new Binding(name, adapt(name, handle.asFixedArity()))));
+        return this;
+    }
+
+    void install(Interpreter interpreter) {
+        for (NativeFunction function : natives.values()) {
+            interpreter.globals.define(function.name, function);
+        }
+    }
+
+    private static MethodHandle adapt(String name, MethodHandle handle) {
+        MethodType type = handle.type();
+        int arity = type.parameterCount();
+
+        MethodHandle[] filters = new MethodHandle[arity];
+        for (int i = 0; i < arity; i++) {
+            MethodHandle filter = argumentFilter(name, type.parameterType(i));
+            if (filter != null) {
+                filters[i] = MethodHandles.insertArguments(filter, 0, String.format("Argument %d to `%s`", i + 1, name));
+            }
+        }
+        handle = MethodHandles.filterArguments(handle, 0, filters);
+
+        Class<?> result = type.returnType();
+        if (!RETURN_TYPES.contains(result)) {
+            throw new IllegalArgumentException(String.format("Native `%s` has unsupported return type %s.", name, result.getName()));
+        } else if (result.isPrimitive() && result != void.class && result != boolean.class) {
+            handle = handle.asType(handle.type().changeReturnType(double.class));
+        }
+
+        handle = handle.asType(MethodType.genericMethodType(arity));
+        if (arity > MAX_EXACT_ARITY) {
+            handle = handle.asSpreader(Object[].class, arity);
+        }
+        return handle;
+    }
+
+    private static MethodHandle argumentFilter(String name, Class<?> parameter) {
+        if (parameter == double.class) {
+            return TO_DOUBLE;
+        } else if (parameter == int.class) {
+            return TO_INT;
+        } else if (parameter == long.class) {
+            return TO_LONG;
+        } else if (parameter == boolean.class) {
+            return TO_BOOLEAN;
+        } else if (parameter == String.class) {
+            return TO_STRING;
+        } else if (parameter == CharSequence.class) {
+            return TO_TEXT;
+        } else if (parameter == Object.class) {
+            return null;
+        }
+        throw new IllegalArgumentException(String.format("Native `%s` has unsupported parameter type %s.", name, parameter.getName()));
+    }
+
+    private static MethodHandle converter(String method, Class<?> result) {
+        try {
+            return MethodHandles.lookup().findStatic(NativeRegistry.class, method, MethodType.methodType(result, String.class, Object.class));
+        } catch (ReflectiveOperationException error) {
+            throw new ExceptionInInitializerError(error);
+        }
+    }
+
+    private static double toDouble(String what, Object value) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        throw new NativeError(String.format("%s must be a number.", what));
+    }
+
+    private static int toInt(String what, Object value) {
+        if (value instanceof Double number && number == (int) (double) number) {
+            return (int) (double) number;
+        }
+        throw new NativeError(String.format("%s must be an integer.", what));
+    }
+
+    private static long toLong(String what, Object value) {
+        if (value instanceof Double number && number == (long) (double) number && Math.abs(number) < 0x1p63) {
+            return (long) (double) number;
+        }
+        throw new NativeError(String.format("%s must be an integer.", what));
+    }
+
+    private static boolean toBoolean(String what, Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        throw new NativeError(String.format("%s must be a boolean.", what));
+    }
+
+    private static String toFlatString(String what, Object value) {
+        return toText(what, value).toString();
+    }
+
+    private static CharSequence toText(String what, Object value) {
+        if (value instanceof CharSequence text) {
+            return text;
+        }
+        throw new NativeError(String.format("%s must be a string.", what));
+    }
+
+    private record Binding(String name, MethodHandle handle) implements NativeFunction.Body {
+        @Override
+        public Object call(Interpreter interpreter, List<Object> arguments) {
+            try {
+                return switch (arguments.size()) {
+                    case 0 -> (Object) handle.invokeExact();
+                    case 1 -> (Object) handle.invokeExact(arguments.get(0));
+                    case 2 -> (Object) handle.invokeExact(arguments.get(0), arguments.get(1));
+                    case 3 -> (Object) handle.invokeExact(arguments.get(0), arguments.get(1), arguments.get(2));
+                    case 4 -> (Object) handle.invokeExact(arguments.get(0), arguments.get(1), arguments.get(2), arguments.get(3));
+                    default -> (Object) handle.invokeExact(arguments.toArray());
+                };
+            } catch (NativeError | Error error) {
+                throw error;
+            } catch (Throwable error) {
+                throw new NativeError(String.format("Native `%s` failed: %s", name, error));
+            }
+        }
+    }
+}
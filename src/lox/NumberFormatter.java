@@ -0,0 +1,123 @@
+package lox;
+
+import java.nio.charset.StandardCharsets;
+
+// Lox prints numbers as Double.toString does, minus a trailing ".0". Double.toString switches to scientific
+// notation at 1e7, so integral values below that print as plain integer digits and can skip it entirely.
+// Non-integral values from 1e-3 up print as plain decimals too, and those with a short shortest representation
+// are written here as well; only the rest, and everything in scientific notation, goes through Double.toString.
+final class NumberFormatter {
+    private static final double PLAIN_LIMIT = 1e7;
+    private static final double DECIMAL_MIN = 1e-3;
+    // Below this, value * 10^k has a round-trip interval narrower than 1/4 (see writeDecimal).
+    private static final double EXACT_LIMIT = 0x1p50;
+    private static final double[] POWERS_OF_TEN = new double[19];
+    // Longest output of writeDigits or writeDecimal: a sign, 7 integral digits, a point and 18 fractional digits.
+    static final int MAX_LENGTH = 27;
+    private static final String[] SMALL = new String[256];
+
+    static {
+        for (int i = 0; i < SMALL.length; i++) {
+            SMALL[i] = Integer.toString(i);
+        }
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private NumberFormatter() {}
+
+    static boolean isPlainInteger(double value) {
+        return value == (int) value && Math.abs(value) < PLAIN_LIMIT
+            && (value != 0 || Double.doubleToRawLongBits(value) == 0);
+    }
+
+    static String format(double value) {
+        if (isPlainInteger(value)) {
+            int integer = (int) value;
+            if (integer >= 0 && integer < SMALL.length) {
+                return SMALL[integer];
+            }
+            return Integer.toString(integer);
+        }
+
+        byte[] buffer = new byte[MAX_LENGTH];
+        int start = writeDecimal(value, buffer, buffer.length);
+        if (start >= 0) {
+            return new String(buffer, start, buffer.length - start, StandardCharsets.ISO_8859_1);
+        }
+        return formatWithJava(value);
+    }
+
+    // For the values neither writeDigits nor writeDecimal handle.
+    static String formatWithJava(double value) {
+        String text = Double.toString(value);
+        if (text.endsWith(".0")) {
+            text = text.substring(0, text.length() - 2);
+        }
+        return text;
+    }
+
+    // Writes the digits of a plain integer (see isPlainInteger) into `buffer` ending at `end`; returns the start.
+    static int writeDigits(double value, byte[] buffer, int end) {
+        int integer = (int) value;
+        boolean negative = integer < 0;
+        if (negative) {
+            integer = -integer;
+        }
+
+        int position = end;
+        do {
+            buffer[--position] = (byte) ('0' + integer % 10);
+            integer /= 10;
+        } while (integer != 0);
+
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    // Writes a non-integral value as Double.toString would, into `buffer` ending at `end`, and returns the start, or
+    // -1 when it is out of the plain range or needs too many digits. A decimal m / 10^k reads back as the value
+    // exactly when the division m / 10^k does: m and 10^k are exact doubles, so the division is correctly rounded.
+    // Trying k = 1, 2, ... in turn finds the fewest digits. While value * 10^k is below EXACT_LIMIT, the integers
+    // reading back as the value lie within 1/8 of it, so rint(value * 10^k) is the only candidate, the one
+    // Double.toString picks.
+    static int writeDecimal(double value, byte[] buffer, int end) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude >= DECIMAL_MIN && magnitude < PLAIN_LIMIT)) {
+            return -1;
+        }
+
+        for (int k = 1; k < POWERS_OF_TEN.length; k++) {
+            double scaled = magnitude * POWERS_OF_TEN[k];
+            if (scaled >= EXACT_LIMIT) {
+                return -1;
+            }
+            double rounded = Math.rint(scaled);
+            if (rounded / POWERS_OF_TEN[k] != magnitude) {
+                continue;
+            }
+
+            long digits = (long) rounded;
+            int position = end;
+            for (int i = 0; i < k; i++) {
+                buffer[--position] = (byte) ('0' + digits % 10);
+                digits /= 10;
+            }
+            buffer[--position] = '.';
+            do {
+                buffer[--position] = (byte) ('0' + digits % 10);
+                digits /= 10;
+            } while (digits != 0);
+
+            if (value < 0) {
+                buffer[--position] = '-';
+            }
+            return position;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+package lox;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Decides what parallel_map and parallel_reduce workers may call. Workers run without the GlobalLock and alongside
+// each other, so everything they do must leave shared state alone: a Lox function qualifies when it writes only
+// variables it declares itself (no assignments to captured or global variables, no property writes, no print, no
+// class declarations), and a native when it is marked parallel-safe. Calls inside a function are checked when they
+// happen, since only then is the callee known. One instance serves all workers of a parallel call, and also holds
+// the call's first failure, which stops the other workers at their next checkpoint.
+class ParallelSafety {
+    // Thrown at a worker's checkpoint once another worker of the call has failed.
+    static final class Cancelled extends RuntimeException {
+        Cancelled() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final ConcurrentHashMap<Stmt.Function, String> verdicts = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    // Null when `callee` may run on a worker, otherwise why not.
+    String check(Object callee) {
+        if (callee instanceof LoxFunction function) {
+            String problem = verdicts.computeIfAbsent(function.declaration, ParallelSafety::analyze);
+            if (problem.isEmpty()) {
+                return null;
+            }
+            return String.format("Function `%s` can't run in parallel: it %s.", function.declaration.name.lexeme, problem);
+        } else if (callee instanceof NativeFunction function && !function.parallelSafe) {
+            return String.format("Native `%s` can't run in parallel.", function.name);
+        } else if (callee instanceof LoxClass loxClass) {
+            return String.format("Class `%s` can't be instantiated in parallel.", loxClass.name);
+        }
+        return null;
+    }
+
+    String check(NativeMethod<?> method) {
+        return method.parallelSafe ? null : String.format("Native `%s` can't run in parallel.", method.name);
+    }
+
+    // Only the first failure counts; the Cancelled errors it causes in other workers don't.
+    void fail(Throwable error) {
+        failure.compareAndSet(null, error);
+    }
+
+    boolean failed() {
+        return failure.get() != null;
+    }
+
+    // Called once every worker has stopped.
+    void throwFailure() {
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException exception) {
+            throw exception;
+        } else if (error instanceof Error fatal) {
+            throw fatal;
+        }
+    }
+
+    private static String analyze(Stmt.Function function) {
+        Analyzer analyzer = new Analyzer();
+        analyzer.rewrite(function);
+        return analyzer.problem == null ? "" : analyzer.problem;
+    }
+
+    private static class Analyzer extends AstRewriter {
+        // Scopes entered since the analyzed function's own; a variable whose distance reaches past them is shared.
+        private int depth = 0;
+        private String problem = null;
+
+        private void reject(String problem) {
+            if (this.problem == null) {
+                this.problem = problem;
+            }
+        }
+
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            depth++;
+            super.visitFunctionStmt(stmt);
+            depth--;
+            return stmt;
+        }
+
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            depth++;
+            super.visitBlockStmt(stmt);
+            depth--;
+            return stmt;
+        }
+
+        @Override
+        public Stmt visitClassStmt(Stmt.Class stmt) {
+            reject(String.format("declares class `%s` (line %d)", stmt.name.lexeme, stmt.name.line));
+            return stmt;
+        }
+
+        @Override
+        public Stmt visitPrintStmt(Stmt.Print stmt) {
+            reject("prints");
+            return stmt;
+        }
+
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            if (expr.distance < 0 || expr.distance >= depth) {
+                reject(String.format("assigns to `%s`, which it doesn't declare (line %d)", expr.name.lexeme, expr.name.line));
+            }
+            return super.visitAssignExpr(expr);
+        }
+
+        @Override
+        public Expr visitSetExpr(Expr.Set expr) {
+            reject(String.format("sets property `%s` (line %d)", expr.name.lexeme, expr.name.line));
+            return super.visitSetExpr(expr);
+        }
+    }
+}
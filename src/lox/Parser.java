@@ -8,10 +8,12 @@ class Parser {
     private static class ParseError extends RuntimeException {}
 
     private final List<Token> tokens;
+    private final ErrorReporter reporter;
     private int current = 0;
 
-    Parser(List<Token> tokens) {
+    Parser(List<Token> tokens, ErrorReporter reporter) {
         this.tokens = tokens;
+        this.reporter = reporter;
     }
 
     List<Stmt> parse() {
@@ -82,6 +84,7 @@ class Parser {
     }
 
     private Stmt forStatement() {
+        Token keyword = previous();
         consume(TokenType.LeftParen, "Expect `(` after `for`.");
 
         Stmt initializer;
@@ -117,7 +120,7 @@ class Parser {
         if (condition == null) {
             condition = new Expr.Literal(true);
         }
-        body = new Stmt.While(condition, body);
+        body = new Stmt.While(keyword, condition, body);
 
         if (initializer != null) {
             body = new Stmt.Block(Arrays.asList(
@@ -174,11 +177,12 @@ class Parser {
     }
 
     private Stmt whileStatement() {
+        Token keyword = previous();
         consume(TokenType.LeftParen, "Expect `(` after `while`.");
         Expr condition = expression();
         consume(TokenType.RightParen, "Expect `)` after condition.");
         Stmt body = statement();
-        return new Stmt.While(condition, body);
+        return new Stmt.While(keyword, condition, body);
     }
 
     private Stmt expressionStatement() {
@@ -438,7 +442,7 @@ class Parser {
     }
 
     private ParseError error(Token token, String message) {
-        Lox.error(token, message);
+        reporter.error(token, message);
         return new ParseError();
     }
 
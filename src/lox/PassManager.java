@@ -0,0 +1,76 @@
+package lox;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+class PassManager {
+    interface Pass {
+        String name();
+        List<Stmt> run(List<Stmt> statements);
+    }
+
+    static final int DEFAULT_LEVEL = 1;
+    static final int MAX_LEVEL = 2;
+
+    private final int level;
+    private final boolean dump;
+    private final boolean time;
+    private final PrintStream log;
+
+    PassManager(int level, boolean dump, boolean time, PrintStream log) {
+        this.level = level;
+        this.dump = dump;
+        this.time = time;
+        this.log = log;
+    }
+
+    List<Pass> passes() {
+        List<Pass> passes = new ArrayList<>();
+        if (level >= 2) {
+            passes.add(new Inliner());
+        }
+        if (level >= 1) {
+            passes.add(new ConstantFolder());
+            passes.add(new Intrinsics());
+        }
+        if (level >= 2) {
+            passes.add(new TypeInference());
+        }
+        if (level >= 1) {
+            passes.add(new TailCalls());
+        }
+        return passes;
+    }
+
+    List<Stmt> run(List<Stmt> statements, ErrorReporter reporter) {
+        if (dump) {
+            dump("resolved", statements);
+        }
+
+        for (Pass pass : passes()) {
+            long start = System.nanoTime();
+            List<Stmt> result = pass.run(statements);
+
+            // Nodes a pass created have no resolver distances yet.
+            if (result != statements) {
+                new Resolver(reporter).resolve(result);
+            }
+
+            if (time) {
+                log.println(String.format("[pass] %-20s %10.3f ms", pass.name(), (System.nanoTime() - start) / 1e6));
+            }
+            if (dump) {
+                dump(pass.name(), result);
+            }
+            statements = result;
+        }
+
+        return statements;
+    }
+
+    private void dump(String stage, List<Stmt> statements) {
+        log.println(String.format("== %s ==", stage));
+        log.print(new AstPrinter().print(statements));
+    }
+}
@@ -0,0 +1,85 @@
+package lox;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+class ProgramCache {
+    private final Path directory;
+
+    ProgramCache(Path directory) {
+        this.directory = directory;
+    }
+
+    static ProgramCache fromEnvironment() {
+        if (Boolean.getBoolean("lox.cache.disabled")) {
+            return null;
+        }
+
+        String directory = System.getProperty("lox.cache.dir");
+        if (directory == null) {
+            directory = System.getenv("JLOX_CACHE_DIR");
+        }
+        if (directory == null) {
+            directory = Paths.get(System.getProperty("user.home"), ".cache", "jlox").toString();
+        }
+        return new ProgramCache(Paths.get(directory));
+    }
+
+    static String key(byte[] source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Lox.VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Charset.defaultCharset().name().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    List<Stmt> load(String key) {
+        Path path = pathOf(key);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new AstReader(buffer).read();
+        } catch (IOException | RuntimeException | StackOverflowError error) {
+            // A missing, stale, truncated or otherwise corrupt entry is just a miss; the caller recompiles and
+            // overwrites it.
+            return null;
+        }
+    }
+
+    void store(String key, List<Stmt> statements) {
+        byte[] bytes = new AstWriter().write(statements);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try {
+                Files.write(temp, bytes);
+                Files.move(temp, pathOf(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | UnsupportedOperationException error) {
+            // The cache is an optimization only, so failing to populate it must not fail the run.
+        }
+    }
+
+    private Path pathOf(String key) {
+        return directory.resolve(key + ".jloxc");
+    }
+}
@@ -19,13 +19,13 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
         Subclass,
     }
 
-    private final Interpreter interpreter;
+    private final ErrorReporter reporter;
     private final Stack<Map<String, Boolean>> scopes = new Stack<>();
     private FunctionType currentFunction = FunctionType.None;
     private ClassType currentClass = ClassType.None;
 
-    Resolver(Interpreter interpreter) {
-        this.interpreter = interpreter;
+    Resolver(ErrorReporter reporter) {
+        this.reporter = reporter;
     }
 
     void resolve(List<Stmt> statements) {
@@ -51,7 +51,7 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
         define(stmt.name);
 
         if (stmt.superclass != null && stmt.name.lexeme.equals(stmt.superclass.name.lexeme)) {
-            Lox.error(stmt.superclass.name, "A class can't inherit from itself.");
+            reporter.error(stmt.superclass.name, "A class can't inherit from itself.");
         }
 
         if (stmt.superclass != null) {
@@ -117,11 +117,11 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     @Override
     public Void visitReturnStmt(Stmt.Return stmt) {
         if (currentFunction == FunctionType.None) {
-            Lox.error(stmt.keyword, "Can't return from top-level code.");
+            reporter.error(stmt.keyword, "Can't return from top-level code.");
         }
         if (stmt.value != null) {
             if (currentFunction == FunctionType.Initializer) {
-                Lox.error(stmt.keyword, "Can't return a value from an initializer.");
+                reporter.error(stmt.keyword, "Can't return a value from an initializer.");
             }
             resolve(stmt.value);
         }
@@ -180,6 +180,19 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
         return null;
     }
 
+    @Override
+    public Void visitInlineExpr(Expr.Inline expr) {
+        resolve(expr.call);
+        resolve(expr.body);
+        return null;
+    }
+
+    @Override
+    public Void visitIntrinsicExpr(Expr.Intrinsic expr) {
+        resolve(expr.call);
+        return null;
+    }
+
     @Override
     public Void visitLiteralExpr(Expr.Literal expr) {
         return null;
@@ -202,19 +215,25 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     @Override
     public Void visitSuperExpr(Expr.Super expr) {
         if (currentClass == ClassType.None) {
-            Lox.error(expr.keyword, "Can't use `super` outside of a class.");
+            reporter.error(expr.keyword, "Can't use `super` outside of a class.");
         } else if (currentClass != ClassType.Subclass) {
-            Lox.error(expr.keyword, "Can't use `super` in a class with no superclass.");
+            reporter.error(expr.keyword, "Can't use `super` in a class with no superclass.");
         }
 
         resolveLocal(expr, expr.keyword);
         return null;
     }
 
+    @Override
+    public Void visitTailCallExpr(Expr.TailCall expr) {
+        resolve(expr.call);
+        return null;
+    }
+
     @Override
     public Void visitThisExpr(Expr.This expr) {
         if (currentClass == ClassType.None) {
-            Lox.error(expr.keyword, "Can't use `this` outside of a class.");
+            reporter.error(expr.keyword, "Can't use `this` outside of a class.");
             return null;
         }
 
@@ -230,8 +249,8 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
     @Override
     public Void visitVariableExpr(Expr.Variable expr) {
-        if (!scopes.isEmpty() && !scopes.peek().get(expr.name.lexeme)) {
-            Lox.error(expr.name, "Can't read local variable in its own initializer.");
+        if (!scopes.isEmpty() && scopes.peek().get(expr.name.lexeme) == Boolean.FALSE) {
+            reporter.error(expr.name, "Can't read local variable in its own initializer.");
         }
 
         resolveLocal(expr, expr.name);
@@ -276,7 +295,7 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
         Map<String, Boolean> scope = scopes.peek();
         if (scope.containsKey(name.lexeme)) {
-            Lox.error(name, "Already a variable with this name in this scope.");
+            reporter.error(name, "Already a variable with this name in this scope.");
         }
         scope.put(name.lexeme, false);
     }
@@ -292,9 +311,10 @@ class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     private void resolveLocal(Expr expr, Token name) {
         for (int i = scopes.size() - 1; i >= 0; i--) {
             if (scopes.get(i).containsKey(name.lexeme)) {
-                interpreter.resolve(expr, scopes.size() - i - 1);
+                expr.distance = scopes.size() - i - 1;
                 return;
             }
         }
+        expr.distance = -1;
     }
 }
@@ -1,10 +1,75 @@
 package lox;
 
+import java.util.Arrays;
+
+// Carries a Lox stack trace instead of a Java one, which would cost a walk of the deep interpreter stack at every
+// error. Nothing is recorded while calls succeed: the trace is built as the error unwinds, when every Lox function
+// it leaves adds a frame (leave) and every call expression it passes on the way out moves it to the caller's line
+// (returnTo). Only the innermost MAX_FRAMES frames are kept.
 class RuntimeError extends RuntimeException {
+    private static final int MAX_FRAMES = 32;
+
     final Token token;
+    // The line the error has reached in the function it is unwinding through.
+    private int line;
+    private String[] functions = null;
+    private int[] lines = null;
+    private int frames = 0;
+    private boolean returned = false;
 
     RuntimeError(Token token, String message) {
-        super(message);
+        super(message, null, false, false);
         this.token = token;
+        this.line = token.line;
+    }
+
+    void leave(String function) {
+        if (functions == null) {
+            functions = new String[4];
+            lines = new int[4];
+        } else if (frames < MAX_FRAMES && frames == functions.length) {
+            functions = Arrays.copyOf(functions, frames * 2);
+            lines = Arrays.copyOf(lines, frames * 2);
+        }
+        if (frames < MAX_FRAMES) {
+            functions[frames] = function;
+            lines[frames] = line;
+        }
+        frames++;
+        returned = false;
+    }
+
+    void returnTo(int line) {
+        this.line = line;
+        returned = true;
+    }
+
+    // One line per frame, innermost first, ending with the top-level line the first call was made from. Runs of the
+    // same frame, as recursion leaves them, are collapsed. Empty when the error happened outside any function.
+    String trace() {
+        if (frames == 0) {
+            return "";
+        }
+
+        StringBuilder trace = new StringBuilder();
+        int kept = Math.min(frames, MAX_FRAMES);
+        for (int i = 0; i < kept; ) {
+            int end = i + 1;
+            while (end < kept && functions[end].equals(functions[i]) && lines[end] == lines[i]) {
+                end++;
+            }
+            trace.append(String.format("    at %s (line %d)%n", functions[i], lines[i]));
+            if (end - i > 1) {
+                trace.append(String.format("    ... repeated %d more times%n", end - i - 1));
+            }
+            i = end;
+        }
+        if (frames > MAX_FRAMES) {
+            trace.append(String.format("    ... %d more%n", frames - MAX_FRAMES));
+        }
+        if (returned) {
+            trace.append(String.format("    at script (line %d)%n", line));
+        }
+        return trace.toString();
     }
 }
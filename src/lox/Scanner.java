@@ -6,6 +6,7 @@ import java.util.Map;
 
 class Scanner {
     private final String source;
+    private final ErrorReporter reporter;
     private final List<Token> tokens = new ArrayList<>();
     private int start = 0;
     private int current = 0;
@@ -29,8 +30,9 @@ class Scanner {
         Map.entry("while", TokenType.While)
     );
 
-    Scanner(String source) {
+    Scanner(String source, ErrorReporter reporter) {
         this.source = source;
+        this.reporter = reporter;
     }
 
     List<Token> scanTokens() {
@@ -119,7 +121,7 @@ class Scanner {
                     while (true) {
                         switch (next) {
                             case '\0' -> {
-                                Lox.error(line, "Unterminated comment.");
+                                reporter.error(line, "Unterminated comment.");
                                 return;
                             }
                             case '\n' -> {
@@ -164,7 +166,7 @@ class Scanner {
                 } else if (isAlpha(ch)) {
                     identifier();
                 } else {
-                    Lox.error(line, String.format("Unexpected character `%c`.", ch));
+                    reporter.error(line, String.format("Unexpected character `%c`.", ch));
                 }
             }
         }
@@ -208,7 +210,7 @@ class Scanner {
         }
 
         if (isAtEnd()) {
-            Lox.error(line, "Untermitated string.");
+            reporter.error(line, "Untermitated string.");
             return;
         }
 
@@ -0,0 +1,74 @@
+package lox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory cache of compiled scripts keyed by source content hash, shared by concurrent runs. Compile errors are
+// cached too, so every run of a broken script reports them without compiling it again. The map holds a FutureTask
+// per script: the first run to ask compiles it outside the lock, and runs of the same script wait for it. Only the
+// MAX_ENTRIES most recently used scripts are kept, so a batch of many distinct scripts doesn't hold every AST it
+// has ever compiled; a script evicted and seen again is compiled again.
+class ScriptCache {
+    record Entry(LoxScript script, String errors) {}
+
+    static final int MAX_ENTRIES = 1024;
+
+    private final LoxEngine engine;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, FutureTask<Entry>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Entry>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final AtomicInteger compiled = new AtomicInteger();
+
+    ScriptCache(LoxEngine engine) {
+        this.engine = engine;
+    }
+
+    Entry get(byte[] source) throws InterruptedException {
+        FutureTask<Entry> task = new FutureTask<>(() -> compile(source));
+        String key = ProgramCache.key(source);
+        FutureTask<Entry> existing;
+        lock.lock();
+        try {
+            existing = entries.putIfAbsent(key, task);
+        } finally {
+            lock.unlock();
+        }
+        if (existing == null) {
+            task.run();
+            existing = task;
+        }
+
+        try {
+            return existing.get();
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(error.getCause());
+        }
+    }
+
+    // Scripts compiled so far, counting a script again each time it was evicted and compiled anew.
+    int compiled() {
+        return compiled.get();
+    }
+
+    private Entry compile(byte[] source) {
+        compiled.incrementAndGet();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        ErrorReporter reporter = new ErrorReporter(new PrintStream(errors, true, StandardCharsets.UTF_8));
+        LoxScript script = engine.compile(source, reporter);
+        return new Entry(script, errors.toString(StandardCharsets.UTF_8));
+    }
+}
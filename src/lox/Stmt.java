@@ -136,10 +136,12 @@ abstract class Stmt {
     }
 
     static class While extends Stmt {
+        final Token keyword;
         final Expr condition;
         final Stmt body;
 
-        While(Expr condition, Stmt body) {
+        While(Token keyword, Expr condition, Stmt body) {
+            this.keyword = keyword;
             this.condition = condition;
             this.body = body;
         }
@@ -0,0 +1,27 @@
+package lox;
+
+import java.util.List;
+
+// Marks `return f(...);`: a return leaves the function whatever statement it is nested in, so every call that is
+// a return's whole value is a tail call. The Interpreter hands a tail call to a Lox function back to
+// LoxFunction.call, which runs it in a loop instead of on top of the caller's frame. Runs last, so no later pass
+// sees these nodes.
+class TailCalls extends AstRewriter implements PassManager.Pass {
+    @Override
+    public String name() {
+        return "tail-calls";
+    }
+
+    @Override
+    public List<Stmt> run(List<Stmt> statements) {
+        return rewrite(statements);
+    }
+
+    @Override
+    public Stmt visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value instanceof Expr.Call call) {
+            return new Stmt.Return(stmt.keyword, new Expr.TailCall((Expr.Call) rewrite(call)));
+        }
+        return super.visitReturnStmt(stmt);
+    }
+}
@@ -0,0 +1,301 @@
+package lox;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+// Flow-insensitive inference over resolved locals. A local's type is the join of everything ever stored into it,
+// computed optimistically (null stands for "no value seen yet") and iterated until no binding changes.
+class TypeInference implements Expr.Visitor<LoxType>, Stmt.Visitor<Void>, PassManager.Pass {
+    private final Stack<Map<String, Token>> scopes = new Stack<>();
+    private final Map<Token, LoxType> bindings = new HashMap<>();
+    private boolean changed;
+
+    @Override
+    public String name() {
+        return "type-inference";
+    }
+
+    @Override
+    public List<Stmt> run(List<Stmt> statements) {
+        do {
+            changed = false;
+            for (Stmt statement : statements) {
+                infer(statement);
+            }
+        } while (changed);
+        return statements;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        beginScope();
+        for (Stmt statement : stmt.statements) {
+            infer(statement);
+        }
+        endScope();
+        return null;
+    }
+
+    @Override
+    public Void visitClassStmt(Stmt.Class stmt) {
+        declare(stmt.name, LoxType.Unknown);
+        if (stmt.superclass != null) {
+            infer(stmt.superclass);
+            beginScope();
+        }
+        beginScope();
+        for (Stmt.Function method : stmt.methods) {
+            inferFunction(method);
+        }
+        endScope();
+        if (stmt.superclass != null) {
+            endScope();
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        infer(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        declare(stmt.name, LoxType.Unknown);
+        inferFunction(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        infer(stmt.condition);
+        infer(stmt.thenBranch);
+        if (stmt.elseBranch != null) {
+            infer(stmt.elseBranch);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        infer(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        if (stmt.value != null) {
+            infer(stmt.value);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        LoxType type = stmt.initializer == null ? LoxType.Nil : infer(stmt.initializer);
+        declare(stmt.name, type);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        infer(stmt.condition);
+        infer(stmt.body);
+        return null;
+    }
+
+    @Override
+    public LoxType visitAssignExpr(Expr.Assign expr) {
+        LoxType type = infer(expr.value);
+        Token binding = lookUp(expr.name.lexeme);
+        if (binding != null) {
+            store(binding, type);
+        }
+        return annotate(expr, type);
+    }
+
+    @Override
+    public LoxType visitBinaryExpr(Expr.Binary expr) {
+        LoxType left = infer(expr.left);
+        LoxType right = infer(expr.right);
+
+        LoxType type = switch (expr.operator.type) {
+            case TokenType.Minus, TokenType.Slash, TokenType.Star -> LoxType.Number;
+            case TokenType.Greater, TokenType.GreaterEqual, TokenType.Less, TokenType.LessEqual,
+                 TokenType.BangEqual, TokenType.EqualEqual -> LoxType.Boolean;
+            case TokenType.Plus -> {
+                if (left == null || right == null) {
+                    yield null;
+                } else if (left == right && (left == LoxType.Number || left == LoxType.String)) {
+                    yield left;
+                }
+                yield LoxType.Unknown;
+            }
+            default -> LoxType.Unknown;
+        };
+        return annotate(expr, type);
+    }
+
+    @Override
+    public LoxType visitCallExpr(Expr.Call expr) {
+        infer(expr.callee);
+        for (Expr argument : expr.arguments) {
+            infer(argument);
+        }
+        return annotate(expr, LoxType.Unknown);
+    }
+
+    @Override
+    public LoxType visitGetExpr(Expr.Get expr) {
+        infer(expr.object);
+        return annotate(expr, LoxType.Unknown);
+    }
+
+    @Override
+    public LoxType visitGroupingExpr(Expr.Grouping expr) {
+        return annotate(expr, infer(expr.expression));
+    }
+
+    @Override
+    public LoxType visitInlineExpr(Expr.Inline expr) {
+        infer(expr.call);
+        infer(expr.body);
+        return annotate(expr, LoxType.Unknown);
+    }
+
+    // Not Number: the call falls back to whatever the global holds when it isn't the native any more.
+    @Override
+    public LoxType visitIntrinsicExpr(Expr.Intrinsic expr) {
+        infer(expr.call);
+        return annotate(expr, LoxType.Unknown);
+    }
+
+    @Override
+    public LoxType visitLiteralExpr(Expr.Literal expr) {
+        LoxType type;
+        if (expr.value == null) {
+            type = LoxType.Nil;
+        } else if (expr.value instanceof Boolean) {
+            type = LoxType.Boolean;
+        } else if (expr.value instanceof Double) {
+            type = LoxType.Number;
+        } else if (expr.value instanceof String) {
+            type = LoxType.String;
+        } else {
+            type = LoxType.Unknown;
+        }
+        return annotate(expr, type);
+    }
+
+    @Override
+    public LoxType visitLogicalExpr(Expr.Logical expr) {
+        return annotate(expr, join(infer(expr.left), infer(expr.right)));
+    }
+
+    @Override
+    public LoxType visitSetExpr(Expr.Set expr) {
+        infer(expr.object);
+        return annotate(expr, infer(expr.value));
+    }
+
+    @Override
+    public LoxType visitSuperExpr(Expr.Super expr) {
+        return annotate(expr, LoxType.Unknown);
+    }
+
+    @Override
+    public LoxType visitTailCallExpr(Expr.TailCall expr) {
+        return annotate(expr, infer(expr.call));
+    }
+
+    @Override
+    public LoxType visitThisExpr(Expr.This expr) {
+        return annotate(expr, LoxType.Unknown);
+    }
+
+    @Override
+    public LoxType visitUnaryExpr(Expr.Unary expr) {
+        infer(expr.right);
+        LoxType type = expr.operator.type == TokenType.Bang ? LoxType.Boolean : LoxType.Number;
+        return annotate(expr, type);
+    }
+
+    @Override
+    public LoxType visitVariableExpr(Expr.Variable expr) {
+        Token binding = lookUp(expr.name.lexeme);
+        LoxType type = binding == null ? LoxType.Unknown : bindings.get(binding);
+        return annotate(expr, type);
+    }
+
+    private void infer(Stmt stmt) {
+        stmt.accept(this);
+    }
+
+    private LoxType infer(Expr expr) {
+        return expr.accept(this);
+    }
+
+    private void inferFunction(Stmt.Function function) {
+        beginScope();
+        for (Token param : function.params) {
+            declare(param, LoxType.Unknown);
+        }
+        for (Stmt statement : function.body) {
+            infer(statement);
+        }
+        endScope();
+    }
+
+    private LoxType annotate(Expr expr, LoxType type) {
+        expr.staticType = type == null ? LoxType.Unknown : type;
+        return type;
+    }
+
+    private static LoxType join(LoxType a, LoxType b) {
+        if (a == null) {
+            return b;
+        } else if (b == null || a == b) {
+            return a;
+        }
+        return LoxType.Unknown;
+    }
+
+    private void beginScope() {
+        scopes.push(new HashMap<>());
+    }
+
+    private void endScope() {
+        scopes.pop();
+    }
+
+    // Globals are never tracked: any script, native or later REPL line may rebind them.
+    private void declare(Token name, LoxType type) {
+        if (scopes.isEmpty()) {
+            return;
+        }
+        scopes.peek().put(name.lexeme, name);
+        store(name, type);
+    }
+
+    private void store(Token binding, LoxType type) {
+        LoxType previous = bindings.get(binding);
+        LoxType joined = join(previous, type);
+        if (joined != previous) {
+            bindings.put(binding, joined);
+            changed = true;
+        }
+    }
+
+    private Token lookUp(String name) {
+        for (int i = scopes.size() - 1; i >= 0; i--) {
+            Token binding = scopes.get(i).get(name);
+            if (binding != null) {
+                return binding;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package tool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Runs a script through the jlox command line with a program cache of its own, then damages the cached entry in
+// several ways and checks that every later run still prints what the first one did: an unreadable entry must only
+// ever be a cache miss, never a crash.
+public class CacheChecks {
+    private static final String SCRIPT = """
+        {
+          var greeting = "hello";
+          print greeting;
+        }
+        print 1 + 2;
+        """;
+    // Bytes before the top-level statement count: the magic number and the format version.
+    private static final int HEADER_SIZE = 8;
+    private static final int NESTING = 1_000_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0) {
+            System.err.println("Usage: cache_checks");
+            System.exit(64);
+        }
+
+        Path directory = Files.createTempDirectory("jlox-cache-checks");
+        int failures = 0;
+        try {
+            Path script = directory.resolve("script.lox");
+            Path cache = directory.resolve("cache");
+            Files.writeString(script, SCRIPT);
+            String expected = run(script, cache);
+
+            Path entry;
+            try (Stream<Path> entries = Files.list(cache)) {
+                entry = entries.filter(path -> path.toString().endsWith(".jloxc")).findFirst().orElseThrow();
+            }
+            byte[] good = Files.readAllBytes(entry);
+
+            Map<String, byte[]> damaged = new LinkedHashMap<>();
+            damaged.put("empty entry", new byte[0]);
+            damaged.put("truncated entry", Arrays.copyOf(good, good.length / 2));
+            damaged.put("garbage statement count", splice(good, new byte[] {-1, -1, -1, -1, 0x07}));
+            damaged.put("negative statement count", splice(good, new byte[] {-1, -1, -1, -1, 0x0f}));
+            damaged.put("deeply nested blocks", nested(good));
+
+            for (Map.Entry<String, byte[]> check : damaged.entrySet()) {
+                Files.write(entry, check.getValue());
+                String output = run(script, cache);
+                if (output.equals(expected)) {
+                    System.out.println(String.format("ok    %s", check.getKey()));
+                } else {
+                    failures++;
+                    System.out.println(String.format("FAIL  %s%n  expected:%n%s  got:%n%s", check.getKey(),
+                        indent(expected), indent(output)));
+                }
+            }
+            System.out.println(String.format("%d checks, %d failed", damaged.size(), failures));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+        if (failures != 0) {
+            System.exit(1);
+        }
+    }
+
+    // Output and exit code of a jlox run, in a JVM of its own.
+    private static String run(Path script, Path cache) throws IOException, InterruptedException {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        List<String> command = List.of(java.toString(), "-cp", System.getProperty("java.class.path"),
+            "-Dlox.cache.dir=" + cache, "lox.Lox", script.toString());
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            in.transferTo(output);
+        }
+        return String.format("%sexit %d%n", output.toString(StandardCharsets.UTF_8), process.waitFor());
+    }
+
+    // The entry with its one-byte statement count replaced by `count`.
+    private static byte[] splice(byte[] entry, byte[] count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(entry, 0, HEADER_SIZE);
+        out.writeBytes(count);
+        out.write(entry, HEADER_SIZE + 1, entry.length - HEADER_SIZE - 1);
+        return out.toByteArray();
+    }
+
+    // A block holding a block holding a block..., NESTING deep. The script starts with a block, so its tag is the
+    // byte after the statement count.
+    private static byte[] nested(byte[] entry) {
+        byte block = entry[HEADER_SIZE + 1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(entry, 0, HEADER_SIZE);
+        for (int i = 0; i < NESTING; i++) {
+            out.write(1);
+            out.write(block);
+        }
+        return out.toByteArray();
+    }
+
+    private static String indent(String text) {
+        return text.isEmpty() ? "" : text.replaceAll("(?m)^", "    ");
+    }
+}
@@ -2,6 +2,7 @@ package tool;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -12,22 +13,25 @@ public class GenerateAst {
             System.exit(64);
         }
         String outputDir = args[0];
-        defineAst(outputDir, "Expr", Arrays.asList(
+        List<String> exprTypes = Arrays.asList(
             "Assign: Token name, Expr value",
             "Binary: Expr left, Token operator, Expr right",
             "Call: Expr callee, Token paren, List<Expr> arguments",
             "Get: Expr object, Token name",
             "Grouping: Expr expression",
+            "Inline: Expr.Call call, Stmt.Function function, Expr body",
+            "Intrinsic: Expr.Call call, MathFunction function",
             "Literal: Object value",
             "Logical: Expr left, Token operator, Expr right",
             "Set: Expr object, Token name, Expr value",
             "Super: Token keyword, Token method",
+            "TailCall: Expr.Call call",
             "This: Token keyword",
             "Unary: Token operator, Expr right",
             "Variable: Token name"
-        ));
+        );
 
-        defineAst(outputDir, "Stmt", Arrays.asList(
+        List<String> stmtTypes = Arrays.asList(
             "Block: List<Stmt> statements",
             "Class: Token name, Expr.Variable superclass, List<Stmt.Function> methods",
             "Expression: Expr expression",
@@ -36,11 +40,19 @@ public class GenerateAst {
             "Print: Expr expression",
             "Return: Token keyword, Expr value",
             "Var: Token name, Expr initializer",
-            "While: Expr condition, Stmt body"
+            "While: Token keyword, Expr condition, Stmt body"
+        );
+
+        // `distance` is the Resolver's scope distance for Variable, Assign, This and Super; -1 means global.
+        defineAst(outputDir, "Expr", exprTypes, Arrays.asList(
+            "LoxType staticType = LoxType.Unknown",
+            "int distance = -1"
         ));
+        defineAst(outputDir, "Stmt", stmtTypes, Arrays.asList());
+        defineRewriter(outputDir, exprTypes, stmtTypes);
     }
 
-    private static void defineAst(String outputDir, String baseName, List<String> types) throws IOException {
+    private static void defineAst(String outputDir, String baseName, List<String> types, List<String> annotations) throws IOException {
         String path = String.format("%s/%s.java", outputDir, baseName);
         try (PrintWriter writer = new PrintWriter(path, "UTF-8")) {
             writer.println("package lox;");
@@ -52,6 +64,14 @@ public class GenerateAst {
             defineVisitor(writer, baseName, types);
             writer.println();
 
+            // Annotations are filled in by analysis passes after parsing, so they are not final.
+            for (String annotation : annotations) {
+                writer.println(String.format("    %s;", annotation));
+            }
+            if (!annotations.isEmpty()) {
+                writer.println();
+            }
+
             for (String type : types) {
                 String className = type.split(":")[0].trim();
                 String fields = type.split(":")[1].trim();
@@ -106,4 +126,126 @@ public class GenerateAst {
 
         writer.println("    }");
     }
+
+    private static void defineRewriter(String outputDir, List<String> exprTypes, List<String> stmtTypes) throws IOException {
+        String path = String.format("%s/AstRewriter.java", outputDir);
+        try (PrintWriter writer = new PrintWriter(path, "UTF-8")) {
+            writer.println("package lox;");
+            writer.println();
+            writer.println("import java.util.ArrayList;");
+            writer.println("import java.util.List;");
+            writer.println();
+            writer.println("abstract class AstRewriter implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {");
+
+            defineRewriterHelpers(writer);
+
+            for (String type : stmtTypes) {
+                writer.println();
+                defineRewrite(writer, "Stmt", type);
+            }
+            for (String type : exprTypes) {
+                writer.println();
+                defineRewrite(writer, "Expr", type);
+            }
+
+            writer.println("}");
+        }
+    }
+
+    private static void defineRewriterHelpers(PrintWriter writer) {
+        writer.println("    List<Stmt> rewrite(List<Stmt> statements) {");
+        writer.println("        return rewriteStmts(statements);");
+        writer.println("    }");
+        writer.println();
+        writer.println("    Stmt rewrite(Stmt stmt) {");
+        writer.println("        return stmt == null ? null : stmt.accept(this);");
+        writer.println("    }");
+        writer.println();
+        writer.println("    Expr rewrite(Expr expr) {");
+        writer.println("        return expr == null ? null : expr.accept(this);");
+        writer.println("    }");
+        writer.println();
+        writer.println("    // A statement that rewrites to nothing is dropped from lists and becomes an empty block elsewhere.");
+        writer.println("    Stmt rewriteBranch(Stmt stmt) {");
+        writer.println("        Stmt result = rewrite(stmt);");
+        writer.println("        if (result == null && stmt != null) {");
+        writer.println("            return new Stmt.Block(new ArrayList<>());");
+        writer.println("        }");
+        writer.println("        return result;");
+        writer.println("    }");
+        writer.println();
+        writer.println("    @SuppressWarnings(\"unchecked\")");
+        writer.println("    <T extends Stmt> List<T> rewriteStmts(List<T> statements) {");
+        writer.println("        List<T> result = null;");
+        writer.println("        for (int i = 0; i < statements.size(); i++) {");
+        writer.println("            T statement = statements.get(i);");
+        writer.println("            T rewritten = (T) rewrite(statement);");
+        writer.println("            if (rewritten != statement && result == null) {");
+        writer.println("                result = new ArrayList<>(statements.subList(0, i));");
+        writer.println("            }");
+        writer.println("            if (result != null && rewritten != null) {");
+        writer.println("                result.add(rewritten);");
+        writer.println("            }");
+        writer.println("        }");
+        writer.println("        return result == null ? statements : result;");
+        writer.println("    }");
+        writer.println();
+        writer.println("    List<Expr> rewriteExprs(List<Expr> exprs) {");
+        writer.println("        List<Expr> result = null;");
+        writer.println("        for (int i = 0; i < exprs.size(); i++) {");
+        writer.println("            Expr expr = exprs.get(i);");
+        writer.println("            Expr rewritten = rewrite(expr);");
+        writer.println("            if (rewritten != expr && result == null) {");
+        writer.println("                result = new ArrayList<>(exprs.subList(0, i));");
+        writer.println("            }");
+        writer.println("            if (result != null) {");
+        writer.println("                result.add(rewritten);");
+        writer.println("            }");
+        writer.println("        }");
+        writer.println("        return result == null ? exprs : result;");
+        writer.println("    }");
+    }
+
+    private static void defineRewrite(PrintWriter writer, String baseName, String type) {
+        String className = type.split(":")[0].trim();
+        String[] fields = type.split(":")[1].trim().split(", ");
+        String param = baseName.toLowerCase();
+
+        writer.println("    @Override");
+        writer.println(String.format("    public %s visit%s%s(%s.%s %s) {", baseName, className, baseName, baseName, className, param));
+
+        List<String> changed = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        for (String field : fields) {
+            String fieldType = field.split(" ")[0];
+            String name = field.split(" ")[1];
+            String rewrite = switch (fieldType) {
+                case "Expr" -> String.format("rewrite(%s.%s)", param, name);
+                case "Stmt" -> String.format("rewriteBranch(%s.%s)", param, name);
+                case "List<Expr>" -> String.format("rewriteExprs(%s.%s)", param, name);
+                case "List<Stmt>", "List<Stmt.Function>" -> String.format("rewriteStmts(%s.%s)", param, name);
+                case "Expr.Variable", "Expr.Call" -> String.format("(%s) rewrite(%s.%s)", fieldType, param, name);
+                default -> null;
+            };
+
+            if (rewrite == null) {
+                arguments.add(String.format("%s.%s", param, name));
+            } else {
+                writer.println(String.format("        %s %s = %s;", fieldType, name, rewrite));
+                changed.add(String.format("%s == %s.%s", name, param, name));
+                arguments.add(name);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            writer.println(String.format("        if (%s) {", String.join(" && ", changed)));
+            writer.println(String.format("            return %s;", param));
+            writer.println("        }");
+            writer.println(String.format("        return new %s.%s(%s);", baseName, className, String.join(", ", arguments)));
+        } else {
+            writer.println(String.format("        return %s;", param));
+        }
+
+        writer.println("    }");
+    }
 }
@@ -0,0 +1,96 @@
+package tool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import lox.LoxContext;
+import lox.LoxEngine;
+import lox.LoxScript;
+import lox.NativeRegistry;
+
+// For every stack size given, finds the deepest recursion a Lox function survives and times recursing to 90% of
+// that depth. Stack sizes take a k, m or g suffix.
+public class RecursionDepth {
+    private static final String FUNCTION = "fun depth(n) { if (n == 0) return 0; return depth(n - 1) + 1; }\n";
+    private static final int MAX_DEPTH = 10_000_000;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: recursion_depth <stack size>... [-O0|-O1|-O2]");
+            System.exit(64);
+        }
+
+        int level = 1;
+        for (String arg : args) {
+            if (arg.matches("-O[0-2]")) {
+                level = arg.charAt(2) - '0';
+            }
+        }
+        LoxEngine engine = new LoxEngine(level, new NativeRegistry());
+
+        System.out.println(String.format("%10s %10s %12s %12s", "stack", "max depth", "bytes/call", "ns/call"));
+        for (String arg : args) {
+            if (arg.startsWith("-")) {
+                continue;
+            }
+            long stackSize = parseSize(arg);
+            int deepest = deepest(engine, stackSize);
+            int timed = Math.max(1, deepest / 10 * 9);
+
+            // Once to warm up, then timed.
+            recurse(engine, stackSize, timed);
+            long start = System.nanoTime();
+            recurse(engine, stackSize, timed);
+            double nanosPerCall = (double) (System.nanoTime() - start) / timed;
+
+            System.out.println(String.format("%10s %10d %12.0f %12.1f", arg, deepest,
+                deepest == 0 ? 0.0 : (double) stackSize / deepest, nanosPerCall));
+        }
+    }
+
+    // Doubles until a run overflows, then bisects between the last depth that worked and the first that didn't.
+    private static int deepest(LoxEngine engine, long stackSize) {
+        int good = 0;
+        int bad = 1;
+        while (bad <= MAX_DEPTH && recurse(engine, stackSize, bad)) {
+            good = bad;
+            bad *= 2;
+        }
+        if (bad > MAX_DEPTH) {
+            return good;
+        }
+
+        while (bad - good > Math.max(1, good / 1000)) {
+            int middle = good + (bad - good) / 2;
+            if (recurse(engine, stackSize, middle)) {
+                good = middle;
+            } else {
+                bad = middle;
+            }
+        }
+        return good;
+    }
+
+    private static boolean recurse(LoxEngine engine, long stackSize, int depth) {
+        LoxScript script = engine.compile(String.format("%sdepth(%d);\n", FUNCTION, depth));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoxContext context = engine.newContext(InputStream.nullInputStream(), out, out);
+        context.setStackSize(stackSize);
+        return context.run(script) == LoxContext.EXIT_OK;
+    }
+
+    private static long parseSize(String size) {
+        if (!size.matches("[0-9]{1,12}[kmgKMG]?")) {
+            System.err.println(String.format("Bad stack size `%s`.", size));
+            System.exit(64);
+        }
+        int shift = switch (Character.toLowerCase(size.charAt(size.length() - 1))) {
+            case 'k' -> 10;
+            case 'm' -> 20;
+            case 'g' -> 30;
+            default -> 0;
+        };
+        String digits = shift == 0 ? size : size.substring(0, size.length() - 1);
+        return Long.parseLong(digits) << shift;
+    }
+}
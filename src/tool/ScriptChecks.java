@@ -0,0 +1,183 @@
+package tool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import lox.LoxBudget;
+import lox.LoxContext;
+import lox.LoxEngine;
+import lox.NativeRegistry;
+
+// Runs small scripts through the embedding API and checks what each prints, errors included, and how it exits.
+// Every check is deterministic, so a failure is a bug rather than bad luck.
+public class ScriptChecks {
+    private record Check(String name, int level, LoxBudget budget, String source, String expected, int exitCode) {
+        Check(String name, int level, String source, String expected) {
+            this(name, level, LoxBudget.UNLIMITED, source, expected, LoxContext.EXIT_OK);
+        }
+    }
+
+    private static final List<Check> CHECKS = List.of(
+        // A call through the fallback path allocates an environment, so these run out of allocations unless the
+        // inlined body is what runs, even after later passes rebuilt the function it came from.
+        new Check("inline path after folding a grouping", 2, LoxBudget.UNLIMITED.withAllocations(1000), """
+            fun add(a, b) { return (a + b); }
+            var i = 0;
+            while (i < 5000) i = add(i, 1);
+            print i;
+            """, "5000\n", LoxContext.EXIT_OK),
+        new Check("inline path after folding a constant", 2, LoxBudget.UNLIMITED.withAllocations(1000), """
+            fun add(a, b) { return a + b * (2 - 1); }
+            var i = 0;
+            while (i < 5000) i = add(i, 1);
+            print i;
+            """, "5000\n", LoxContext.EXIT_OK),
+        new Check("error in an inlined function keeps its frame", 2, LoxBudget.UNLIMITED, """
+            fun add(a, b) { return a + b; }
+            var x = 1;
+            print add(x, 2);
+            print add(x, "s");
+            """, """
+            3
+            [Runtime Error | line 1]: Operands must be two numbers or two strings.
+                at add (line 1)
+                at script (line 4)
+            """, LoxContext.EXIT_RUNTIME_ERROR),
+
+        // Tasks and channels. Every check orders its tasks through join or a channel, so the interleaving the lock
+        // happens to pick can't change what is printed.
+        new Check("join returns the task's result", 1, """
+            fun work() { return 6 * 7; }
+            var task = spawn(work);
+            print task.join();
+            print task.done();
+            """, "42\ntrue\n"),
+        new Check("join of a failed task is nil", 1, LoxBudget.UNLIMITED, """
+            fun fail() { return 1 + nil; }
+            var task = spawn(fail);
+            print task.join();
+            print task.done();
+            """, """
+            [Runtime Error | line 1]: Operands must be two numbers or two strings.
+                at fail (line 1)
+            nil
+            true
+            """, LoxContext.EXIT_RUNTIME_ERROR),
+        new Check("channel delivers in FIFO order", 1, """
+            var channel = Channel(2);
+            fun produce() {
+              for (var i = 0; i < 6; i = i + 1) channel.send(i);
+              channel.send(nil);
+              channel.send("end");
+            }
+            spawn(produce);
+            for (var i = 0; i < 8; i = i + 1) print channel.receive();
+            """, "0\n1\n2\n3\n4\n5\nnil\nend\n"),
+        new Check("send on a closed channel fails", 1, LoxBudget.UNLIMITED, """
+            var channel = Channel(4);
+            channel.send(1);
+            channel.close();
+            channel.send(2);
+            """, "[Runtime Error | line 4]: Cannot send on a closed channel.\n", LoxContext.EXIT_RUNTIME_ERROR),
+        new Check("closed channel drains, then gives nil", 1, """
+            var channel = Channel(4);
+            channel.send("a");
+            channel.send("b");
+            channel.close();
+            print channel.receive();
+            print channel.receive();
+            print channel.receive();
+            print channel.receive();
+            """, "a\nb\nnil\nnil\n"),
+        new Check("receive in a task ends when the channel closes", 1, """
+            var channel = Channel(1);
+            fun consume() {
+              var total = 0;
+              var value = channel.receive();
+              while (value != nil) { total = total + value; value = channel.receive(); }
+              return total;
+            }
+            var task = spawn(consume);
+            for (var i = 1; i <= 100; i = i + 1) channel.send(i);
+            channel.close();
+            print task.join();
+            """, "5050\n"),
+        new Check("tasks waiting on each other fail instead of hanging", 1, LoxBudget.UNLIMITED, """
+            var a = Channel(1);
+            var b = Channel(1);
+            fun left() { var x = a.receive(); b.send(1); return x; }
+            var task = spawn(left);
+            print b.receive();
+            print task.join();
+            """, """
+            [Runtime Error | line 3]: Deadlock: every task is waiting.
+                at left (line 3)
+            [Runtime Error | line 5]: Deadlock: every task is waiting.
+            """, LoxContext.EXIT_RUNTIME_ERROR),
+        new Check("a task left waiting after the script ends", 1, LoxBudget.UNLIMITED, """
+            var channel = Channel(1);
+            fun wait() { return channel.receive(); }
+            spawn(wait);
+            print "done";
+            """, """
+            done
+            [Runtime Error | line 2]: Deadlock: every task is waiting.
+                at wait (line 2)
+            """, LoxContext.EXIT_RUNTIME_ERROR),
+
+        // Every worker extends the same captured rope, and the main script extends it again afterwards.
+        new Check("parallel workers leave shared ropes intact", 1, """
+            var s = "";
+            for (var i = 0; i < 100; i = i + 1) s = s + "x";
+            var numbers = Array();
+            for (var i = 0; i < 2000; i = i + 1) numbers.push(i);
+            fun tag(x) { var t = s + "-" + to_string(x); return t + t; }
+            var tagged = parallel_map(numbers, tag);
+            var bad = 0;
+            for (var i = 0; i < 2000; i = i + 1) {
+              var want = s + "-" + to_string(i);
+              if (tagged.get(i) != want + want) bad = bad + 1;
+            }
+            s = s + "!";
+            print bad;
+            print substring(s, 98, 101);
+            print substring(tagged.get(7), 98, 104);
+            """, "0\nxx!\nxx-7xx\n")
+    );
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            System.err.println("Usage: script_checks");
+            System.exit(64);
+        }
+
+        int failures = 0;
+        for (Check check : CHECKS) {
+            LoxEngine engine = new LoxEngine(check.level(), new NativeRegistry());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            LoxContext context = engine.newContext(InputStream.nullInputStream(), out, out);
+            context.setBudget(check.budget());
+            int exitCode = context.run(engine.compile(check.source()));
+            String output = out.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+
+            if (exitCode == check.exitCode() && output.equals(check.expected())) {
+                System.out.println(String.format("ok    %s", check.name()));
+            } else {
+                failures++;
+                System.out.println(String.format("FAIL  %s%n  expected exit %d:%n%s  got exit %d:%n%s",
+                    check.name(), check.exitCode(), indent(check.expected()), exitCode, indent(output)));
+            }
+        }
+
+        System.out.println(String.format("%d checks, %d failed", CHECKS.size(), failures));
+        if (failures != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String indent(String text) {
+        return text.isEmpty() ? "" : text.replaceAll("(?m)^", "    ");
+    }
+}
@@ -0,0 +1,77 @@
+package tool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lox.LoxContext;
+import lox.LoxEngine;
+import lox.LoxScript;
+import lox.NativeRegistry;
+
+// Compiles a script once and runs that single LoxScript from many threads at the same time, each run in its own
+// context, checking that every run prints exactly what a lone run prints. Scripts should be deterministic (no
+// clock(), no input).
+public class StressScripts {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: stress_scripts <script> [threads] [runs per thread] [optimization level]");
+            System.exit(64);
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 4;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int level = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        String source = new String(Files.readAllBytes(Paths.get(args[0])), Charset.defaultCharset());
+        LoxEngine engine = new LoxEngine(level, new NativeRegistry());
+        LoxScript script = engine.compile(source);
+        byte[] expected = run(engine, script);
+
+        AtomicInteger mismatches = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < runs; j++) {
+                        if (!Arrays.equals(run(engine, script), expected)) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        System.out.println(String.format("%d threads x %d runs: %d mismatches in %.1f s", threads, runs,
+            mismatches.get(), (System.nanoTime() - begin) / 1e9));
+        if (mismatches.get() != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static byte[] run(LoxEngine engine, LoxScript script) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LoxContext context = engine.newContext(InputStream.nullInputStream(), out, out);
+        context.run(script);
+        return out.toByteArray();
+    }
+}